@@ -0,0 +1,213 @@
+package unrefined.runtime;
+
+import unrefined.util.Threading;
+import unrefined.util.function.Functor;
+import unrefined.util.signal.Connection;
+import unrefined.util.signal.Dispatcher;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link Dispatcher} implementation which actuates queued slots concurrently on an {@link Executor},
+ * by default on virtual threads if {@link Threading#isVirtualThreadSupported()},
+ * or on the {@link ForkJoinPool#commonPool()} otherwise.
+ * <p>
+ * Optionally, actuations can be serialized by key: actuations whose connections map to equal keys
+ * run one at a time in emission order, while actuations of different keys run in parallel.
+ * By default, the key is the slot, so every subscriber sees its events in order.
+ *
+ * @see Dispatcher
+ */
+public class ParallelDispatcher extends Dispatcher {
+
+    private static final ThreadLocal<ParallelDispatcher> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final Functor<? super Connection, ?> keyMapper;
+    private final ConcurrentHashMap<Object, SerialQueue> serialQueues;
+
+    /**
+     * Creates a new dispatcher on the default executor, which serializes actuations per slot.
+     */
+    public ParallelDispatcher() {
+        this(true);
+    }
+
+    /**
+     * Creates a new dispatcher on the default executor.
+     *
+     * @param ordered whether to serialize actuations per slot
+     */
+    public ParallelDispatcher(boolean ordered) {
+        this(defaultExecutor(), ordered ? Connection::getSlot : null);
+    }
+
+    /**
+     * Creates a new dispatcher on the given executor.
+     *
+     * @param executor the executor to run actuations
+     * @param keyMapper maps connections to serialization keys, {@code null} to run every actuation in parallel
+     */
+    public ParallelDispatcher(Executor executor, Functor<? super Connection, ?> keyMapper) {
+        this.executor = Objects.requireNonNull(executor);
+        this.keyMapper = keyMapper;
+        this.serialQueues = keyMapper == null ? null : new ConcurrentHashMap<>();
+    }
+
+    private static Executor defaultExecutor() {
+        Threading threading = Threading.getInstance();
+        if (threading.isVirtualThreadSupported()) {
+            ThreadFactory factory = threading.buildVirtualThread().factory();
+            return runnable -> factory.newThread(runnable).start();
+        }
+        else return ForkJoinPool.commonPool();
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public boolean isOrdered() {
+        return keyMapper != null;
+    }
+
+    @Override
+    public boolean isDispatchThread(Thread thread) {
+        if (thread == Thread.currentThread()) return CURRENT.get() == this;
+        else return executor instanceof ForkJoinPool
+                && thread instanceof ForkJoinWorkerThread
+                && ((ForkJoinWorkerThread) thread).getPool() == executor;
+    }
+
+    @Override
+    public void invokeLater(Runnable runnable) {
+        executor.execute(new Task(runnable));
+    }
+
+    @Override
+    protected void enqueue(Connection connection, Runnable actuation) {
+        if (keyMapper == null) executor.execute(new Task(actuation));
+        else {
+            Object key = keyMapper.apply(connection);
+            SerialQueue serialQueue;
+            do {
+                serialQueue = serialQueues.get(key);
+                if (serialQueue == null) {
+                    serialQueue = new SerialQueue(key);
+                    SerialQueue previous = serialQueues.putIfAbsent(key, serialQueue);
+                    if (previous != null) serialQueue = previous;
+                }
+            } while (!serialQueue.offer(actuation));
+        }
+    }
+
+    private void run(Runnable runnable) {
+        ParallelDispatcher previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            runnable.run();
+        }
+        finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    private final class Task implements Runnable {
+        private final Runnable runnable;
+        public Task(Runnable runnable) {
+            this.runnable = runnable;
+        }
+        @Override
+        public void run() {
+            ParallelDispatcher.this.run(runnable);
+        }
+    }
+
+    /**
+     * Runs the actuations of one key in order, one at a time.
+     * Retires itself from {@link #serialQueues} once drained.
+     */
+    private final class SerialQueue implements Runnable {
+
+        private static final int IDLE = 0;
+        private static final int SCHEDULED = 1;
+        private static final int RETIRED = -1;
+
+        private final Object key;
+        private final Queue<Runnable> actuations = new ConcurrentLinkedQueue<>();
+
+        /**
+         * {@link #IDLE}, {@link #SCHEDULED} while a run is pending or draining, or {@link #RETIRED}.
+         */
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        public SerialQueue(Object key) {
+            this.key = key;
+        }
+
+        /**
+         * @return false if retired, the caller should look up a new queue
+         */
+        public boolean offer(Runnable actuation) {
+            if (state.get() == RETIRED) return false;
+            // Offer first, so that a scheduled run never waits for an actuation in flight
+            actuations.offer(actuation);
+            while (true) {
+                int state = this.state.get();
+                if (state == SCHEDULED) return true;
+                else if (state == IDLE) {
+                    if (this.state.compareAndSet(IDLE, SCHEDULED)) {
+                        executor.execute(this);
+                        return true;
+                    }
+                }
+                // Retired meanwhile; if already polled, the actuation did run
+                else return !actuations.remove(actuation);
+            }
+        }
+
+        @Override
+        public void run() {
+            int batchSize = getBatchSize();
+            for (int i = 0; ; i ++) {
+                Runnable actuation = actuations.poll();
+                if (actuation == null) {
+                    state.set(IDLE);
+                    if (actuations.isEmpty()) {
+                        // A concurrent offer of IDLE -> SCHEDULED takes over, otherwise retire
+                        if (state.compareAndSet(IDLE, RETIRED)) serialQueues.remove(key, this);
+                        return;
+                    }
+                    // Offered meanwhile, continue unless a concurrent offer took over
+                    if (!state.compareAndSet(IDLE, SCHEDULED)) return;
+                    continue;
+                }
+                ParallelDispatcher.this.run(actuation);
+                if (i + 1 >= batchSize) {
+                    // Yield the pooled thread, continue later
+                    executor.execute(this);
+                    return;
+                }
+            }
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "executor=" + executor +
+                ", ordered=" + isOrdered() +
+                '}';
+    }
+
+}
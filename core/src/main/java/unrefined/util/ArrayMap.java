@@ -47,6 +47,12 @@ import java.util.Set;
  * item, it may reduce the capacity to better match the current size.  In the future an
  * explicit call to set the capacity should turn off this aggressive shrinking behavior.</p>
  *
+ * <p>For containers which may grow larger, a hashing threshold can be given on construction.
+ * Above it, the map transparently upgrades to an open-addressing hash table indexing the same
+ * arrays, which are then no longer sorted by hash code: lookups, adds and removes become O(1),
+ * and removing an entry moves the last one into its index.  Once shrunk below half the threshold,
+ * the map downgrades back to binary search on its next add.</p>
+ *
  * <p>This structure is <b>NOT</b> thread-safe.</p>
  */
 public final class ArrayMap<K, V> implements Map<K, V> {
@@ -99,12 +105,24 @@ public final class ArrayMap<K, V> implements Map<K, V> {
     private static final Object baseCacheLock = new Object();
     private static final Object twiceBaseCacheLock = new Object();
 
+    /**
+     * A reasonable hashing threshold, above which binary search starts losing to hashing.
+     */
+    public static final int DEFAULT_HASHING_THRESHOLD = 128;
+
     private final boolean identityHashCode;
+    private final int hashingThreshold;
     private int[] hashes;
     private Object[] array;
     private int size;
     private MapCollections<K, V> collections;
 
+    /**
+     * The open-addressing table of index+1 into the arrays (0 means empty slot), null when not hashing.
+     */
+    private int[] table;
+    private int shift;
+
     private static int binarySearchHashes(int[] hashes, int N, int hash) {
         try {
             return FastArray.binarySearchUnchecked(hashes, 0, N, hash);
@@ -118,6 +136,10 @@ public final class ArrayMap<K, V> implements Map<K, V> {
     }
 
     private int indexOf(Object key, int hash) {
+        if (table != null) {
+            return indexOfHashed(key, hash);
+        }
+
         final int N = size;
 
         // Important fast case: if nothing is in here, nothing to look for.
@@ -156,6 +178,10 @@ public final class ArrayMap<K, V> implements Map<K, V> {
     }
 
     private int indexOfNull() {
+        if (table != null) {
+            return indexOfHashed(null, 0);
+        }
+
         final int N = size;
 
         // Important fast case: if nothing is in here, nothing to look for.
@@ -193,6 +219,91 @@ public final class ArrayMap<K, V> implements Map<K, V> {
         return ~end;
     }
 
+    private int indexOfHashed(Object key, int hash) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        for (int slot = (hash * 0x9E3779B9) >>> shift; ; slot = (slot + 1) & mask) {
+            final int index = table[slot] - 1;
+            if (index < 0) {
+                // New entries always go to the end when hashing.
+                return ~size;
+            }
+            if (hashes[index] == hash) {
+                final Object k = array[index << 1];
+                if (key == null ? k == null : key.equals(k)) return index;
+            }
+        }
+    }
+
+    /**
+     * Rebuild the hash table for the current entries, sized for at least <var>capacity</var>
+     * entries at a load factor of at most 0.5.
+     */
+    private void buildTable(int capacity) {
+        final int length = Integer.highestOneBit(Math.max(capacity, 2)) << 2;
+        table = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+        for (int i = 0; i < size; i++) {
+            tableInsert(i);
+        }
+    }
+
+    private void tableInsert(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int slot = (hashes[index] * 0x9E3779B9) >>> shift;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = index + 1;
+    }
+
+    private int tableSlotOf(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int slot = (hashes[index] * 0x9E3779B9) >>> shift;
+        while (table[slot] != index + 1) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void tableRemove(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int hole = tableSlotOf(index);
+        // Backward shift deletion, no tombstones.
+        for (int slot = (hole + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int home = (hashes[table[slot] - 1] * 0x9E3779B9) >>> shift;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Drop the hash table, and sort the entries by hash code again for binary search.
+     * Only called below half the hashing threshold, so insertion sort is good enough.
+     */
+    private void dropTable() {
+        table = null;
+        final int[] hashes = this.hashes;
+        final Object[] array = this.array;
+        for (int i = 1; i < size; i++) {
+            final int hash = hashes[i];
+            final Object key = array[i << 1];
+            final Object value = array[(i << 1) + 1];
+            int j = i - 1;
+            while (j >= 0 && hashes[j] > hash) {
+                hashes[j + 1] = hashes[j];
+                array[(j + 1) << 1] = array[j << 1];
+                array[((j + 1) << 1) + 1] = array[(j << 1) + 1];
+                j--;
+            }
+            hashes[j + 1] = hash;
+            array[(j + 1) << 1] = key;
+            array[((j + 1) << 1) + 1] = value;
+        }
+    }
+
     private void allocArrays(final int size) {
         if (hashes == EMPTY_IMMUTABLE_INTS) {
             throw new UnsupportedOperationException("ArrayMap is immutable");
@@ -311,7 +422,31 @@ public final class ArrayMap<K, V> implements Map<K, V> {
     }
 
     private ArrayMap(int capacity, boolean identityHashCode) {
+        this(capacity, identityHashCode, 0);
+    }
+
+    /**
+     * Create a new ArrayMap with a given initial capacity, which upgrades to hashing
+     * once its size exceeds <var>hashingThreshold</var>.
+     *
+     * @param hashingThreshold The size above which to hash, 0 to never hash.
+     */
+    public ArrayMap(int capacity, int hashingThreshold) {
+        this(capacity, false, hashingThreshold);
+    }
+
+    /**
+     * Create a new ArrayMap with a given initial capacity, which upgrades to hashing
+     * once its size exceeds <var>hashingThreshold</var>.
+     *
+     * @param identityHashCode Whether to use {@link System#identityHashCode(Object)} instead
+     * of {@link Object#hashCode()} for keys.
+     * @param hashingThreshold The size above which to hash, 0 to never hash.
+     */
+    public ArrayMap(int capacity, boolean identityHashCode, int hashingThreshold) {
+        if (hashingThreshold < 0) throw new IllegalArgumentException("hashingThreshold < 0");
         this.identityHashCode = identityHashCode;
+        this.hashingThreshold = hashingThreshold;
 
         // If this is immutable, use the sentinal EMPTY_IMMUTABLE_INTS
         // instance instead of the usual EmptyArray.INT. The reference
@@ -350,6 +485,7 @@ public final class ArrayMap<K, V> implements Map<K, V> {
             hashes = EmptyArray.INT;
             array = EmptyArray.OBJECT;
             size = 0;
+            table = null;
             freeArrays(ohashes, oarray, osize);
         }
         if (CONCURRENT_MODIFICATION_EXCEPTIONS && size > 0) {
@@ -378,6 +514,21 @@ public final class ArrayMap<K, V> implements Map<K, V> {
         }
     }
 
+    /**
+     * Returns the size above which this map upgrades to hashing, 0 if never.
+     */
+    public int getHashingThreshold() {
+        return hashingThreshold;
+    }
+
+    /**
+     * Returns whether this map currently looks up keys by hashing, rather than binary search.
+     * If so, the entries are not sorted by hash code.
+     */
+    public boolean isHashing() {
+        return table != null;
+    }
+
     /**
      * Check whether a key exists in the array.
      *
@@ -527,6 +678,9 @@ public final class ArrayMap<K, V> implements Map<K, V> {
      */
     @Override
     public V put(K key, V value) {
+        if (table != null && size < (hashingThreshold >> 1)) {
+            dropTable();
+        }
         final int osize = size;
         final int hash;
         int index;
@@ -584,6 +738,12 @@ public final class ArrayMap<K, V> implements Map<K, V> {
         array[index<<1] = key;
         array[(index<<1)+1] = value;
         size++;
+        if (table != null) {
+            if ((size << 1) > table.length) buildTable(size);
+            else tableInsert(index);
+        } else if (hashingThreshold > 0 && size > hashingThreshold) {
+            buildTable(size);
+        }
         return null;
     }
 
@@ -594,11 +754,14 @@ public final class ArrayMap<K, V> implements Map<K, V> {
     public void putAll(ArrayMap<? extends K, ? extends V> array) {
         final int N = array.size;
         ensureCapacity(size + N);
-        if (size == 0) {
+        if (size == 0 && array.table == null) {
             if (N > 0) {
                 System.arraycopy(array.hashes, 0, hashes, 0, N);
                 System.arraycopy(array.array, 0, this.array, 0, N<<1);
                 size = N;
+                if (hashingThreshold > 0 && size > hashingThreshold) {
+                    buildTable(size);
+                }
             }
         } else {
             for (int i=0; i<N; i++) {
@@ -649,8 +812,21 @@ public final class ArrayMap<K, V> implements Map<K, V> {
             final Object[] oarray = array;
             hashes = EmptyArray.INT;
             array = EmptyArray.OBJECT;
+            table = null;
             freeArrays(ohashes, oarray, osize);
             nsize = 0;
+        } else if (table != null) {
+            // Hashing, move the last entry into the hole instead of shifting.
+            nsize = osize - 1;
+            tableRemove(index);
+            if (index < nsize) {
+                table[tableSlotOf(nsize)] = index + 1;
+                hashes[index] = hashes[nsize];
+                array[index << 1] = array[nsize << 1];
+                array[(index << 1) + 1] = array[(nsize << 1) + 1];
+            }
+            array[nsize << 1] = null;
+            array[(nsize << 1) + 1] = null;
         } else {
             nsize = osize - 1;
             if (hashes.length > (BASE_SIZE*2) && size < hashes.length/3) {
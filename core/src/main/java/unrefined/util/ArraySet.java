@@ -44,6 +44,10 @@ import unrefined.util.ArrayMap.MapCollections;
  * item, it may reduce the capacity to better match the current size.  In the future an
  * explicit call to set the capacity should turn off this aggressive shrinking behavior.</p>
  *
+ * <p>Like {@link ArrayMap}, a hashing threshold can be given on construction, above which
+ * the set transparently upgrades to an open-addressing hash table, and downgrades back
+ * to binary search once shrunk below half the threshold.</p>
+ *
  * <p>This structure is <b>NOT</b> thread-safe.</p>
  */
 public final class ArraySet<E> implements Collection<E>, Set<E> {
@@ -80,11 +84,18 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     private static final Object twiceBaseCacheLock = new Object();
 
     private final boolean identityHashCode;
+    private final int hashingThreshold;
     private int[] hashes;
     private Object[] array;
     private int size;
     private MapCollections<E, E> collections;
 
+    /**
+     * The open-addressing table of index+1 into the arrays (0 means empty slot), null when not hashing.
+     */
+    private int[] table;
+    private int shift;
+
     private int binarySearch(int[] hashes, int hash) {
         try {
             return FastArray.binarySearchUnchecked(hashes, 0, size, hash);
@@ -94,6 +105,10 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     }
 
     private int indexOf(Object key, int hash) {
+        if (table != null) {
+            return indexOfHashed(key, hash);
+        }
+
         final int N = size;
 
         // Important fast case: if nothing is in here, nothing to look for.
@@ -132,6 +147,10 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     }
 
     private int indexOfNull() {
+        if (table != null) {
+            return indexOfHashed(null, 0);
+        }
+
         final int N = size;
 
         // Important fast case: if nothing is in here, nothing to look for.
@@ -169,6 +188,88 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         return ~end;
     }
 
+    private int indexOfHashed(Object key, int hash) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        for (int slot = (hash * 0x9E3779B9) >>> shift; ; slot = (slot + 1) & mask) {
+            final int index = table[slot] - 1;
+            if (index < 0) {
+                // New values always go to the end when hashing.
+                return ~size;
+            }
+            if (hashes[index] == hash) {
+                final Object k = array[index];
+                if (key == null ? k == null : key.equals(k)) return index;
+            }
+        }
+    }
+
+    /**
+     * Rebuild the hash table for the current values, sized for at least <var>capacity</var>
+     * values at a load factor of at most 0.5.
+     */
+    private void buildTable(int capacity) {
+        final int length = Integer.highestOneBit(Math.max(capacity, 2)) << 2;
+        table = new int[length];
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+        for (int i = 0; i < size; i++) {
+            tableInsert(i);
+        }
+    }
+
+    private void tableInsert(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int slot = (hashes[index] * 0x9E3779B9) >>> shift;
+        while (table[slot] != 0) slot = (slot + 1) & mask;
+        table[slot] = index + 1;
+    }
+
+    private int tableSlotOf(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int slot = (hashes[index] * 0x9E3779B9) >>> shift;
+        while (table[slot] != index + 1) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void tableRemove(int index) {
+        final int[] table = this.table;
+        final int mask = table.length - 1;
+        int hole = tableSlotOf(index);
+        // Backward shift deletion, no tombstones.
+        for (int slot = (hole + 1) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            final int home = (hashes[table[slot] - 1] * 0x9E3779B9) >>> shift;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                table[hole] = table[slot];
+                hole = slot;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    /**
+     * Drop the hash table, and sort the values by hash code again for binary search.
+     * Only called below half the hashing threshold, so insertion sort is good enough.
+     */
+    private void dropTable() {
+        table = null;
+        final int[] hashes = this.hashes;
+        final Object[] array = this.array;
+        for (int i = 1; i < size; i++) {
+            final int hash = hashes[i];
+            final Object value = array[i];
+            int j = i - 1;
+            while (j >= 0 && hashes[j] > hash) {
+                hashes[j + 1] = hashes[j];
+                array[j + 1] = array[j];
+                j--;
+            }
+            hashes[j + 1] = hash;
+            array[j + 1] = value;
+        }
+    }
+
     private void allocArrays(final int size) {
         if (size == (BASE_SIZE * 2)) {
             synchronized (twiceBaseCacheLock) {
@@ -288,7 +389,31 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     }
 
     private ArraySet(int capacity, boolean identityHashCode) {
+        this(capacity, identityHashCode, 0);
+    }
+
+    /**
+     * Create a new ArraySet with a given initial capacity, which upgrades to hashing
+     * once its size exceeds <var>hashingThreshold</var>.
+     *
+     * @param hashingThreshold The size above which to hash, 0 to never hash.
+     */
+    public ArraySet(int capacity, int hashingThreshold) {
+        this(capacity, false, hashingThreshold);
+    }
+
+    /**
+     * Create a new ArraySet with a given initial capacity, which upgrades to hashing
+     * once its size exceeds <var>hashingThreshold</var>.
+     *
+     * @param identityHashCode Whether to use {@link System#identityHashCode(Object)} instead
+     * of {@link Object#hashCode()} for values.
+     * @param hashingThreshold The size above which to hash, 0 to never hash.
+     */
+    public ArraySet(int capacity, boolean identityHashCode, int hashingThreshold) {
+        if (hashingThreshold < 0) throw new IllegalArgumentException("hashingThreshold < 0");
         this.identityHashCode = identityHashCode;
+        this.hashingThreshold = hashingThreshold;
         if (capacity == 0) {
             hashes = EmptyArray.INT;
             array = EmptyArray.OBJECT;
@@ -342,6 +467,7 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             hashes = EmptyArray.INT;
             array = EmptyArray.OBJECT;
             size = 0;
+            table = null;
             freeArrays(ohashes, oarray, osize);
         }
         if (size != 0) {
@@ -370,6 +496,21 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         }
     }
 
+    /**
+     * Returns the size above which this set upgrades to hashing, 0 if never.
+     */
+    public int getHashingThreshold() {
+        return hashingThreshold;
+    }
+
+    /**
+     * Returns whether this set currently looks up values by hashing, rather than binary search.
+     * If so, the values are not sorted by hash code.
+     */
+    public boolean isHashing() {
+        return table != null;
+    }
+
     /**
      * Check whether a value exists in the set.
      *
@@ -436,6 +577,9 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
      */
     @Override
     public boolean add(E value) {
+        if (table != null && size < (hashingThreshold >> 1)) {
+            dropTable();
+        }
         final int oSize = size;
         final int hash;
         int index;
@@ -489,6 +633,12 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
         hashes[index] = hash;
         array[index] = value;
         size++;
+        if (table != null) {
+            if ((size << 1) > table.length) buildTable(size);
+            else tableInsert(index);
+        } else if (hashingThreshold > 0 && size > hashingThreshold) {
+            buildTable(size);
+        }
         return true;
     }
 
@@ -499,7 +649,7 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
     public void addAll(ArraySet<? extends E> array) {
         final int N = array.size;
         ensureCapacity(size + N);
-        if (size == 0) {
+        if (size == 0 && array.table == null) {
             if (N > 0) {
                 System.arraycopy(array.hashes, 0, hashes, 0, N);
                 System.arraycopy(array.array, 0, this.array, 0, N);
@@ -507,6 +657,9 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
                     throw new ConcurrentModificationException();
                 }
                 size = N;
+                if (hashingThreshold > 0 && size > hashingThreshold) {
+                    buildTable(size);
+                }
             }
         } else {
             for (int i = 0; i < N; i++) {
@@ -567,6 +720,20 @@ public final class ArraySet<E> implements Collection<E>, Set<E> {
             // Now empty.
             //if (DEBUG) Log.d(TAG, "remove: shrink from " + mHashes.length + " to 0");
             clear();
+        } else if (table != null) {
+            // Hashing, move the last value into the hole instead of shifting.
+            final int nSize = oSize - 1;
+            tableRemove(index);
+            if (index < nSize) {
+                table[tableSlotOf(nSize)] = index + 1;
+                hashes[index] = hashes[nSize];
+                array[index] = array[nSize];
+            }
+            array[nSize] = null;
+            if (oSize != size) {
+                throw new ConcurrentModificationException();
+            }
+            size = nSize;
         } else {
             final int nSize = oSize - 1;
             if (shouldShrink()) {
@@ -0,0 +1,38 @@
+package unrefined.util;
+
+/**
+ * A cursor over the {@code byte}s of a container, which doesn't box them.
+ * <pre>{@code
+ * ByteCursor cursor = array.cursor();
+ * while (cursor.next()) {
+ *     use(cursor.index(), cursor.value());
+ * }
+ * }</pre>
+ *
+ * @see GrowableByteArray#cursor()
+ * @see SparseByteArray#cursor()
+ */
+public interface ByteCursor {
+
+    /**
+     * Moves to the next element.
+     *
+     * @return {@code false} if there are no more elements
+     */
+    boolean next();
+
+    /**
+     * Returns the index of the current element, or its key in a sparse array.
+     *
+     * @return the index
+     */
+    int index();
+
+    /**
+     * Returns the current element.
+     *
+     * @return the element
+     */
+    byte value();
+
+}
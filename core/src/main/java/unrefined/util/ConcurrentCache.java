@@ -0,0 +1,829 @@
+package unrefined.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent counterpart of {@link LruCache} for heavily shared caches, with the same
+ * {@link #create}, {@link #entryRemoved} and {@link #sizeOf} hooks and counters.
+ *
+ * <p>Reads are lock-free: the entries live in a {@link ConcurrentHashMap}, and accesses are
+ * recorded into striped, lossy ring buffers instead of reordering a list on every hit.
+ * Writes are applied to the map immediately, and queued for the eviction policy.
+ * Both buffers are drained in batches by whichever thread acquires the eviction lock,
+ * never blocking readers.
+ *
+ * <p>The eviction policy is W-TinyLFU: new entries enter a small LRU admission window (1%),
+ * and entries leaving the window only replace the victim of the segmented LRU main space
+ * if they have been used more frequently, as estimated by a 4-bit count-min sketch which
+ * ages periodically. This keeps one-hit wonders of scans from flushing the popular entries.
+ *
+ * <p>This class does not allow null to be used as a key or value. The eviction is applied
+ * asynchronously to the writes, so {@link #size()} can exceed {@link #maxSize()} briefly.
+ */
+public class ConcurrentCache<K, V> {
+
+    private static final int NONE = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+
+    private static final float WINDOW_RATIO = 0.01f;
+    private static final float PROTECTED_RATIO = 0.8f;
+
+    private static final int READ_BUFFER_SIZE = 32;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int READ_BUFFER_THRESHOLD = READ_BUFFER_SIZE / 2;
+    private static final int READ_BUFFER_STRIPES =
+            Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) << 2);
+    private static final int WRITE_BUFFER_THRESHOLD = 128;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReadBuffer<K, V>[] readBuffers;
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /*
+     * Guarded by evictionLock.
+     */
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private int maxWindow;
+    private int maxProtected;
+    private int windowSize;
+    private int protectedSize;
+
+    /** Size of this cache in units, applied by the policy. Not necessarily the number of elements. */
+    private volatile int size;
+    private volatile int maxSize;
+
+    private final LongAdder putCount = new LongAdder();
+    private final LongAdder createCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        setMaxSize(maxSize);
+        readBuffers = new ReadBuffer[READ_BUFFER_STRIPES];
+        for (int i = 0; i < readBuffers.length; i ++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    private void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        maxWindow = Math.max(1, (int) (maxSize * WINDOW_RATIO));
+        maxProtected = (int) ((maxSize - maxWindow) * PROTECTED_RATIO);
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+
+        List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            setMaxSize(maxSize);
+            evicted = maintenance(maxSize);
+        }
+        finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache or can be
+     * created by {@code #create}. This returns null if a value is not cached
+     * and cannot be created.
+     */
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Node<K, V> node = data.get(key);
+        if (node != null) {
+            hitCount.increment();
+            afterRead(node);
+            return node.value;
+        }
+        missCount.increment();
+
+        /*
+         * Attempt to create a value. This may take a long time, and the map
+         * may be different when create() returns. If a conflicting value was
+         * added to the map while create() was working, we leave that value in
+         * the map and release the created value.
+         */
+
+        V createdValue = create(key);
+        if (createdValue == null) {
+            return null;
+        }
+        createCount.increment();
+
+        Node<K, V> created = new Node<>(key, createdValue, safeSizeOf(key, createdValue));
+        node = data.putIfAbsent(key, created);
+        if (node == null) {
+            afterWrite(() -> onAdd(created));
+            return createdValue;
+        }
+        else {
+            V mapValue = node.value;
+            afterRead(node);
+            entryRemoved(false, key, createdValue, mapValue);
+            return mapValue;
+        }
+    }
+
+    /**
+     * Caches {@code value} for {@code key}.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    public final V put(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+
+        putCount.increment();
+        int weight = safeSizeOf(key, value);
+        Node<K, V> node = new Node<>(key, value, weight);
+        while (true) {
+            Node<K, V> prior = data.putIfAbsent(key, node);
+            if (prior == null) {
+                afterWrite(() -> onAdd(node));
+                return null;
+            }
+            V previous;
+            synchronized (prior) {
+                // Removed concurrently, retry until it's gone from the map
+                if (prior.retired) {
+                    Thread.yield();
+                    continue;
+                }
+                previous = prior.value;
+                prior.value = value;
+                prior.weight = weight;
+            }
+            afterWrite(() -> onUpdate(prior));
+            entryRemoved(false, key, previous, value);
+            return previous;
+        }
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    public final V remove(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        V previous;
+        synchronized (node) {
+            previous = node.value;
+            node.retired = true;
+        }
+        afterWrite(() -> onRemove(node));
+        entryRemoved(false, key, previous, null);
+        return previous;
+    }
+
+    /**
+     * Remove entries, in the eviction order of the policy, until the total of remaining entries
+     * is at or below the requested size.
+     *
+     * @param maxSize the maximum size of the cache before returning. May be -1
+     *            to evict even 0-sized elements.
+     */
+    public void trimToSize(int maxSize) {
+        List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            evicted = maintenance(maxSize);
+        }
+        finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+    }
+
+    /**
+     * Performs the pending maintenance, which is otherwise amortized over the cache operations.
+     */
+    public void cleanUp() {
+        trimToSize(maxSize);
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        trimToSize(-1); // -1 will evict 0-sized elements
+    }
+
+    private void afterRead(Node<K, V> node) {
+        ReadBuffer<K, V> buffer = readBuffers[spread(System.identityHashCode(Thread.currentThread())) & (readBuffers.length - 1)];
+        if (buffer.offer(node) >= READ_BUFFER_THRESHOLD) {
+            scheduleDrain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.offer(task);
+        if (pendingWrites.incrementAndGet() >= WRITE_BUFFER_THRESHOLD) {
+            // Writers outpace the draining thread, apply back pressure
+            List<Node<K, V>> evicted;
+            evictionLock.lock();
+            try {
+                evicted = maintenance(maxSize);
+            }
+            finally {
+                evictionLock.unlock();
+            }
+            notifyEvicted(evicted);
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        do {
+            if (!evictionLock.tryLock()) {
+                // The holder rechecks the write buffer after unlocking
+                return;
+            }
+            List<Node<K, V>> evicted;
+            try {
+                evicted = maintenance(maxSize);
+            }
+            finally {
+                evictionLock.unlock();
+            }
+            notifyEvicted(evicted);
+        } while (pendingWrites.get() > 0);
+    }
+
+    /**
+     * Drains the buffers and evicts down to the given size, with the eviction lock held.
+     *
+     * @return the evicted nodes, to notify after unlocking
+     */
+    private List<Node<K, V>> maintenance(int maxSize) {
+        for (ReadBuffer<K, V> buffer : readBuffers) {
+            buffer.drainTo(this);
+        }
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        sketch.ensureCapacity(Math.min(data.size(), this.maxSize));
+        return evict(maxSize);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                sketch.increment(node.key);
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                sketch.increment(node.key);
+                // Promote to the protected segment, which may demote its LRU back to probation
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.add(node);
+                protectedSize += node.policyWeight;
+                demote();
+                break;
+            case PROTECTED:
+                sketch.increment(node.key);
+                protectedQueue.moveToBack(node);
+                break;
+        }
+    }
+
+    private void onAdd(Node<K, V> node) {
+        synchronized (node) {
+            if (node.retired) {
+                return;
+            }
+            node.policyWeight = node.weight;
+        }
+        sketch.increment(node.key);
+        node.queue = WINDOW;
+        window.add(node);
+        windowSize += node.policyWeight;
+        size += node.policyWeight;
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (node.queue == NONE) {
+            // Not added yet, or already removed
+            return;
+        }
+        int weight = node.weight;
+        int delta = weight - node.policyWeight;
+        node.policyWeight = weight;
+        size += delta;
+        if (node.queue == WINDOW) {
+            windowSize += delta;
+        }
+        else if (node.queue == PROTECTED) {
+            protectedSize += delta;
+        }
+        onAccess(node);
+    }
+
+    private void onRemove(Node<K, V> node) {
+        if (node.queue != NONE) {
+            unlink(node);
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowSize -= node.policyWeight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedQueue.remove(node);
+                protectedSize -= node.policyWeight;
+                break;
+        }
+        node.queue = NONE;
+        size -= node.policyWeight;
+    }
+
+    private void demote() {
+        while (protectedSize > maxProtected) {
+            Node<K, V> demoted = protectedQueue.first();
+            if (demoted == null) {
+                break;
+            }
+            protectedQueue.remove(demoted);
+            protectedSize -= demoted.policyWeight;
+            demoted.queue = PROBATION;
+            probation.add(demoted);
+        }
+    }
+
+    private List<Node<K, V>> evict(int maxSize) {
+        // Move the overflow of the admission window to probation, as candidates
+        int candidates = 0;
+        while (windowSize > maxWindow) {
+            Node<K, V> node = window.first();
+            if (node == null) {
+                break;
+            }
+            window.remove(node);
+            windowSize -= node.policyWeight;
+            node.queue = PROBATION;
+            probation.add(node);
+            candidates ++;
+        }
+        // Compare the newest candidate first
+        Node<K, V> candidate = candidates > 0 ? probation.last() : null;
+
+        List<Node<K, V>> evicted = null;
+        while (size > maxSize) {
+            Node<K, V> victim = probation.first();
+            if (victim == null) {
+                victim = protectedQueue.first();
+            }
+            if (victim == null) {
+                victim = window.first();
+            }
+            if (victim == null) {
+                break;
+            }
+            Node<K, V> evict = victim;
+            if (candidates > 0 && candidate != null && candidate.queue == PROBATION && candidate != victim) {
+                Node<K, V> previous = candidate.prev;
+                // Admit the candidate only if used more frequently than the victim
+                if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                    evict = candidate;
+                }
+                candidate = previous;
+                candidates --;
+            }
+            if (evicted == null) {
+                evicted = new ArrayList<>();
+            }
+            unlink(evict);
+            if (data.remove(evict.key, evict)) {
+                synchronized (evict) {
+                    evict.retired = true;
+                }
+                evictionCount.increment();
+                evicted.add(evict);
+            }
+        }
+        return evicted;
+    }
+
+    private void notifyEvicted(List<Node<K, V>> evicted) {
+        if (evicted != null) {
+            for (Node<K, V> node : evicted) {
+                entryRemoved(true, node.key, node.value, null);
+            }
+        }
+    }
+
+    /**
+     * Called for entries that have been evicted or removed. This method is
+     * invoked when a value is evicted to make space, removed by a call to
+     * {@link #remove}, or replaced by a call to {@link #put}. The default
+     * implementation does nothing.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * @param evicted true if the entry is being removed to make space, false
+     *     if the removal was caused by a {@link #put} or {@link #remove}.
+     * @param newValue the new value for {@code key}, if it exists. If non-null,
+     *     this removal was caused by a {@link #put} or a {@link #get}. Otherwise, it was caused by
+     *     an eviction or a {@link #remove}.
+     */
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {}
+
+    /**
+     * Called after a cache miss to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization: other threads may
+     * access the cache while this method is executing.
+     *
+     * <p>If a value for {@code key} exists in the cache when this method
+     * returns, the created value will be released with {@link #entryRemoved}
+     * and discarded.
+     */
+    protected V create(K key) {
+        return null;
+    }
+
+    private int safeSizeOf(K key, V value) {
+        int result = sizeOf(key, value);
+        if (result < 0) {
+            throw new IllegalStateException("Negative size: " + key + "=" + value);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units.  The default implementation returns 1 so that size
+     * is the number of entries and max size is the maximum number of entries.
+     *
+     * <p>An entry's size must not change while it is in the cache.
+     */
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache. For all other caches, this returns the sum of
+     * the sizes of the entries in this cache, as of the last maintenance.
+     */
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the maximum
+     * number of entries in the cache. For all other caches, this returns the
+     * maximum sum of the sizes of the entries in this cache.
+     */
+    public final int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned a value that was
+     * already present in the cache.
+     */
+    public final int hitCount() {
+        return hitCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #get} returned null or required a new
+     * value to be created.
+     */
+    public final int missCount() {
+        return missCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #create(Object)} returned a value.
+     */
+    public final int createCount() {
+        return createCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #put} was called.
+     */
+    public final int putCount() {
+        return putCount.intValue();
+    }
+
+    /**
+     * Returns the number of values that have been evicted.
+     */
+    public final int evictionCount() {
+        return evictionCount.intValue();
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache, ordered from the
+     * next to be evicted to the last to be evicted.
+     */
+    public final Map<K, V> snapshot() {
+        Map<K, V> snapshot = new LinkedHashMap<>();
+        List<Node<K, V>> evicted;
+        evictionLock.lock();
+        try {
+            evicted = maintenance(maxSize);
+            for (Node<K, V> node = probation.first(); node != null; node = node.next) {
+                snapshot.put(node.key, node.value);
+            }
+            for (Node<K, V> node = window.first(); node != null; node = node.next) {
+                snapshot.put(node.key, node.value);
+            }
+            for (Node<K, V> node = protectedQueue.first(); node != null; node = node.next) {
+                snapshot.put(node.key, node.value);
+            }
+        }
+        finally {
+            evictionLock.unlock();
+        }
+        notifyEvicted(evicted);
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        int hitCount = hitCount();
+        int accesses = hitCount + missCount();
+        int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return getClass().getName() + "@" + Integer.toHexString(hashCode())
+                + '{' +
+                "maxSize=" + maxSize +
+                ", hits=" + hitCount +
+                ", misses=" + missCount() +
+                ", hitRate=" + hitPercent + '%' +
+                '}';
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+        private volatile V value;
+        private volatile int weight;
+
+        /*
+         * Guarded by synchronized (this).
+         */
+        private boolean retired = false;
+
+        /*
+         * Guarded by evictionLock.
+         */
+        private int policyWeight;
+        private int queue = NONE;
+        private Node<K, V> prev, next;
+
+        public Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+    /**
+     * A doubly linked list of nodes in access order, accessed with the eviction lock held only.
+     */
+    private static final class AccessOrderDeque<K, V> {
+
+        private Node<K, V> head, tail;
+
+        public Node<K, V> first() {
+            return head;
+        }
+
+        public Node<K, V> last() {
+            return tail;
+        }
+
+        public void add(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+        }
+
+        public void remove(Node<K, V> node) {
+            if (node.prev == null) head = node.next;
+            else node.prev.next = node.next;
+            if (node.next == null) tail = node.prev;
+            else node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+
+        public void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                add(node);
+            }
+        }
+
+    }
+
+    /**
+     * A bounded, lossy ring buffer of accessed nodes. Offering never blocks; when full, accesses are dropped,
+     * which only makes the recency and frequency slightly less accurate.
+     */
+    private static final class ReadBuffer<K, V> {
+
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter = 0;
+
+        /**
+         * @return the count of pending accesses after offering
+         */
+        public int offer(Node<K, V> node) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            long pending = tail - head;
+            if (pending >= READ_BUFFER_SIZE) {
+                return READ_BUFFER_SIZE;
+            }
+            if (writeCounter.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) tail & READ_BUFFER_MASK, node);
+                return (int) pending + 1;
+            }
+            // Contended, drop the access
+            return (int) pending;
+        }
+
+        public void drainTo(ConcurrentCache<K, V> cache) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            for (; head < tail; head ++) {
+                int index = (int) head & READ_BUFFER_MASK;
+                Node<K, V> node = buffer.get(index);
+                if (node == null) {
+                    // Claimed but not published yet
+                    break;
+                }
+                buffer.lazySet(index, null);
+                cache.onAccess(node);
+            }
+            readCounter = head;
+        }
+
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters, estimating the access frequency of keys
+     * in the recent history. All counters are halved periodically to age the history.
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEED = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long ONE_MASK = 0x1111111111111111L;
+
+        private long[] table = new long[0];
+        private int tableMask;
+        private int sampleSize;
+        private int additions;
+
+        public void ensureCapacity(int maximumSize) {
+            int maximum = Math.min(Math.max(maximumSize, 16), 1 << 30);
+            if (table.length >= maximum) {
+                return;
+            }
+            table = new long[Integer.highestOneBit(maximum - 1) << 1];
+            tableMask = table.length - 1;
+            sampleSize = 10 * maximum;
+            additions = 0;
+        }
+
+        public int frequency(Object key) {
+            if (table.length == 0) {
+                return 0;
+            }
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i ++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        public void increment(Object key) {
+            if (table.length == 0) {
+                return;
+            }
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i ++) {
+                added |= incrementAt(indexOf(hash, i), start + i);
+            }
+            if (added && ++ additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private boolean incrementAt(int index, int counter) {
+            int offset = counter << 2;
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                return true;
+            }
+            return false;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEED[i]) * SEED[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private void reset() {
+            int odd = 0;
+            for (int i = 0; i < table.length; i ++) {
+                odd += Long.bitCount(table[i] & ONE_MASK);
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions = (additions - (odd >>> 2)) >>> 1;
+        }
+
+    }
+
+}
@@ -18,7 +18,6 @@ package unrefined.util;
 
 import unrefined.nio.charset.Charsets;
 
-import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.EOFException;
@@ -32,19 +31,28 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -86,6 +94,22 @@ import java.util.regex.Pattern;
  * observe the value at the time that {@link #get} was called. Updates and
  * removals after the call do not impact ongoing reads.
  *
+ * <p>Operations are recorded in a binary journal. By default, every edit is written
+ * through to the journal file before returning, and reaches the storage device
+ * whenever the system flushes its page cache. With a {@link #setDurabilityWindow
+ * durability window}, the records of edits creating entries are instead batched in
+ * memory and written in one group commit at most the window later, which is forced
+ * to the storage device; entries created within the window are dropped on the next
+ * open after a crash. Edits replacing or removing published values are still written
+ * through, and forced, before returning, since their old files are already gone.
+ *
+ * <p>This class is thread-safe without a global lock. Operations on a key are
+ * serialized by one of a fixed set of lock stripes, which is only held while
+ * opening or renaming the files, never while reading or writing their contents;
+ * operations on keys of different stripes run in parallel. Appending to the journal
+ * is the only critical section shared by all keys. The LRU order is tracked by access
+ * stamps, and the entries are evicted in the background.
+ *
  * <p>This class is tolerant of some I/O errors. If files are missing from the
  * filesystem, the corresponding entries will be dropped from the cache. If
  * an error occurs while writing a cache value, the edit will fail silently.
@@ -107,9 +131,36 @@ public class DiskLruCache implements Closeable {
     private static final String REMOVE = "REMOVE";
     private static final String READ = "READ";
 
+    private static final int MAGIC_2 = 0x444C5243; // "DLRC"
+    private static final int VERSION_2 = 2;
+    private static final int HEADER_LENGTH_2 = 16;
+    private static final byte OP_CLEAN = 1;
+    private static final byte OP_DIRTY = 2;
+    private static final byte OP_REMOVE = 3;
+    private static final byte OP_READ = 4;
+
+    /**
+     * The buffered journal bytes which force a group commit, regardless of the durability window.
+     */
+    private static final int GROUP_COMMIT_BYTES = 64 * 1024;
+
+    /**
+     * The count of least recently used entries first selected for eviction by a trim.
+     */
+    private static final int TRIM_BATCH = 16;
+
     /*
-     * This cache uses a journal file named "journal". A typical journal file
-     * looks like this:
+     * This cache uses a binary journal file named "journal". It starts with a
+     * 16-byte header of four big-endian ints: the magic 0x444C5243 ("DLRC"),
+     * the journal version 2, the application's version and the value count.
+     * Each subsequent record is an op byte (1 CLEAN, 2 DIRTY, 3 REMOVE, 4 READ),
+     * the key length byte and the ASCII key, and for CLEAN records, the length
+     * of each value as an unsigned LEB128 varint. The records have the same
+     * meanings as the lines of the textual version 1 journal below. A record
+     * torn by a crash at the end of the journal is truncated on open.
+     *
+     * Version 1 journals are still read, and rewritten as version 2 on open.
+     * A typical version 1 journal file looks like this:
      *     libcore.io.DiskLruCache
      *     1
      *     100
@@ -152,36 +203,54 @@ public class DiskLruCache implements Closeable {
     private final File journalFileTmp;
     private final File journalFileBackup;
     private final int appVersion;
-    private long maxSize;
+    private volatile long maxSize;
     private final int valueCount;
-    private long size = 0;
-    private Writer journalWriter;
-    private final LinkedHashMap<String, Entry> lruEntries = new LinkedHashMap<>(0, 0.75f, true);
-    private int redundantOpCount;
+    private final AtomicLong size = new AtomicLong();
+    private volatile JournalWriter journalWriter;
+    private volatile long durabilityWindowNanos = 0;
+    private final ConcurrentHashMap<String, Entry> lruEntries = new ConcurrentHashMap<>();
+    private final AtomicInteger redundantOpCount = new AtomicInteger();
+
+    /**
+     * Operations on an entry hold the lock of its key's stripe. Rebuilding the journal
+     * and closing hold all of them, in index order. The journal writer's monitor is
+     * always acquired last.
+     */
+    private static final int STRIPE_COUNT = 64;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+
+    /**
+     * Stamps entries on access, the least recently used entry has the smallest stamp.
+     */
+    private final AtomicLong accessClock = new AtomicLong();
 
     /**
      * To differentiate between old and current snapshots, each entry is given
      * a sequence number each time an edit is committed. A snapshot is stale if
      * its sequence number is not equal to its entry's sequence number.
      */
-    private long nextSequenceNumber = 0;
+    private final AtomicLong nextSequenceNumber = new AtomicLong();
 
     /**
-     * This cache uses a single background thread to evict entries.
+     * This cache uses a single background thread to evict entries and group commit the journal.
      */
-    private final ThreadPoolExecutor executorService =
-            new ThreadPoolExecutor(0, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    private final ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor(1);
 
     private final Callable<Void> cleanupCallable = new Callable<Void>() {
         public Void call() throws Exception {
-            synchronized (DiskLruCache.this) {
-                if (journalWriter == null) {
-                    return null; // Closed.
-                }
-                trimToSize();
-                if (journalRebuildRequired()) {
-                    rebuildJournal();
-                    redundantOpCount = 0;
+            if (journalWriter == null) {
+                return null; // Closed.
+            }
+            trimToSize();
+            if (journalRebuildRequired()) {
+                lockAll();
+                try {
+                    if (journalWriter != null) {
+                        rebuildJournal();
+                        redundantOpCount.set(0);
+                    }
+                } finally {
+                    unlockAll();
                 }
             }
             return null;
@@ -196,6 +265,32 @@ public class DiskLruCache implements Closeable {
         this.journalFileBackup = new File(directory, JOURNAL_FILE_BACKUP);
         this.valueCount = valueCount;
         this.maxSize = maxSize;
+        executorService.setKeepAliveTime(60L, TimeUnit.SECONDS);
+        executorService.allowCoreThreadTimeOut(true);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock stripeOf(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPE_COUNT - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = STRIPE_COUNT - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    private void touch(Entry entry) {
+        entry.accessStamp = accessClock.incrementAndGet();
     }
 
     /**
@@ -231,10 +326,13 @@ public class DiskLruCache implements Closeable {
         DiskLruCache cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
         if (cache.journalFile.exists()) {
             try {
-                cache.readJournal();
+                boolean legacy = cache.readJournal();
                 cache.processJournal();
-                cache.journalWriter = new BufferedWriter(
-                        new OutputStreamWriter(new FileOutputStream(cache.journalFile, true), Charsets.US_ASCII));
+                if (legacy) {
+                    cache.rebuildJournal();
+                } else {
+                    cache.journalWriter = cache.new JournalWriter(cache.journalFile, true);
+                }
                 return cache;
             } catch (IOException journalIsCorrupt) {
                 System.out
@@ -254,7 +352,104 @@ public class DiskLruCache implements Closeable {
         return cache;
     }
 
-    private void readJournal() throws IOException {
+    /**
+     * Replays the journal.
+     *
+     * @return true if the journal is a legacy textual one, and should be rebuilt
+     */
+    private boolean readJournal() throws IOException {
+        byte[] journal;
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            if (file.length() > Integer.MAX_VALUE) {
+                throw new IOException("journal too large");
+            }
+            journal = new byte[(int) file.length()];
+            file.readFully(journal);
+        }
+        if (journal.length > 0 && journal[0] == MAGIC.charAt(0)) {
+            readTextJournal();
+            return true;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+        if (journal.length < HEADER_LENGTH_2
+                || buffer.getInt() != MAGIC_2
+                || buffer.getInt() != VERSION_2
+                || buffer.getInt() != appVersion
+                || buffer.getInt() != valueCount) {
+            throw new IOException("unexpected journal header");
+        }
+
+        int recordCount = 0;
+        int end = HEADER_LENGTH_2;
+        int position = end;
+        try {
+            while (position < journal.length) {
+                byte op = journal[position ++];
+                int keyLength = journal[position ++] & 0xFF;
+                if (position + keyLength > journal.length) {
+                    break;
+                }
+                String key = new String(journal, position, keyLength, Charsets.US_ASCII);
+                position += keyLength;
+                Entry entry;
+                switch (op) {
+                    case OP_CLEAN:
+                        entry = getOrCreateEntry(key);
+                        for (int i = 0; i < valueCount; i++) {
+                            long length = 0;
+                            for (int shift = 0; ; shift += 7) {
+                                byte b = journal[position ++];
+                                length |= (long) (b & 0x7F) << shift;
+                                if (b >= 0) break;
+                            }
+                            entry.lengths[i] = length;
+                        }
+                        entry.readable = true;
+                        entry.currentEditor = null;
+                        break;
+                    case OP_DIRTY:
+                        entry = getOrCreateEntry(key);
+                        entry.currentEditor = new Editor(entry);
+                        break;
+                    case OP_REMOVE:
+                        lruEntries.remove(key);
+                        break;
+                    case OP_READ:
+                        entry = lruEntries.get(key);
+                        if (entry != null) {
+                            touch(entry);
+                        }
+                        break;
+                    default:
+                        throw new IOException("unexpected journal record: " + op);
+                }
+                end = position;
+                recordCount++;
+            }
+        } catch (ArrayIndexOutOfBoundsException tornRecord) {
+            // The journal ends with a partially written record.
+        }
+        if (end < journal.length) {
+            // Drop the torn record, so that appended records start on a record boundary.
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(end);
+            }
+        }
+        redundantOpCount.set(recordCount - lruEntries.size());
+        return false;
+    }
+
+    private Entry getOrCreateEntry(String key) {
+        Entry entry = lruEntries.get(key);
+        if (entry == null) {
+            entry = new Entry(key);
+            lruEntries.put(key, entry);
+        }
+        touch(entry);
+        return entry;
+    }
+
+    private void readTextJournal() throws IOException {
         StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), Charsets.US_ASCII);
         try {
             String magic = reader.readLine();
@@ -280,7 +475,7 @@ public class DiskLruCache implements Closeable {
                     break;
                 }
             }
-            redundantOpCount = lineCount - lruEntries.size();
+            redundantOpCount.set(lineCount - lruEntries.size());
         } finally {
             try {
                 reader.close();
@@ -309,11 +504,7 @@ public class DiskLruCache implements Closeable {
             key = line.substring(keyBegin, secondSpace);
         }
 
-        Entry entry = lruEntries.get(key);
-        if (entry == null) {
-            entry = new Entry(key);
-            lruEntries.put(key, entry);
-        }
+        Entry entry = getOrCreateEntry(key);
 
         if (secondSpace != -1 && firstSpace == CLEAN.length() && line.startsWith(CLEAN)) {
             String[] parts = line.substring(secondSpace + 1).split(" ");
@@ -323,7 +514,7 @@ public class DiskLruCache implements Closeable {
         } else if (secondSpace == -1 && firstSpace == DIRTY.length() && line.startsWith(DIRTY)) {
             entry.currentEditor = new Editor(entry);
         } else if (secondSpace == -1 && firstSpace == READ.length() && line.startsWith(READ)) {
-            // This work was already done by calling lruEntries.get().
+            // This work was already done by calling getOrCreateEntry().
         } else {
             throw new IOException("unexpected journal line: " + line);
         }
@@ -335,11 +526,25 @@ public class DiskLruCache implements Closeable {
      */
     private void processJournal() throws IOException {
         deleteIfExists(journalFileTmp);
+        // Delete files of edits whose records never made it into the journal.
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                int dot = name.indexOf('.');
+                if (dot == -1 || name.equals(JOURNAL_FILE_BACKUP)
+                        || !LEGAL_KEY_PATTERN.matcher(name.substring(0, dot)).matches()) {
+                    continue;
+                }
+                if (name.endsWith(".tmp") || !lruEntries.containsKey(name.substring(0, dot))) {
+                    deleteIfExists(new File(directory, name));
+                }
+            }
+        }
         for (Iterator<Entry> i = lruEntries.values().iterator(); i.hasNext(); ) {
             Entry entry = i.next();
             if (entry.currentEditor == null) {
                 for (int t = 0; t < valueCount; t++) {
-                    size += entry.lengths[t];
+                    size.addAndGet(entry.lengths[t]);
                 }
             } else {
                 entry.currentEditor = null;
@@ -354,30 +559,21 @@ public class DiskLruCache implements Closeable {
 
     /**
      * Creates a new journal that omits redundant information. This replaces the
-     * current journal if it exists.
+     * current journal if it exists. Called with all stripes locked, or before published.
      */
-    private synchronized void rebuildJournal() throws IOException {
+    private void rebuildJournal() throws IOException {
         if (journalWriter != null) {
             journalWriter.close();
         }
 
-        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFileTmp), Charsets.US_ASCII));
+        JournalWriter writer = new JournalWriter(journalFileTmp, false);
         try {
-            writer.write(MAGIC);
-            writer.write(System.lineSeparator());
-            writer.write(VERSION_1);
-            writer.write(System.lineSeparator());
-            writer.write(Integer.toString(appVersion));
-            writer.write(System.lineSeparator());
-            writer.write(Integer.toString(valueCount));
-            writer.write(System.lineSeparator());
-            writer.write(System.lineSeparator());
-
-            for (Entry entry : lruEntries.values()) {
+            writer.writeHeader();
+            for (Entry entry : entriesInAccessOrder()) {
                 if (entry.currentEditor != null) {
-                    writer.write(DIRTY + ' ' + entry.key + System.lineSeparator());
+                    writer.encode(OP_DIRTY, entry.key, null);
                 } else {
-                    writer.write(CLEAN + ' ' + entry.key + entry.getLengths() + System.lineSeparator());
+                    writer.encode(OP_CLEAN, entry.key, entry.lengths);
                 }
             }
         } finally {
@@ -390,7 +586,7 @@ public class DiskLruCache implements Closeable {
         renameTo(journalFileTmp, journalFile, false);
         journalFileBackup.delete();
 
-        journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journalFile, true), Charsets.US_ASCII));
+        journalWriter = new JournalWriter(journalFile, true);
     }
 
     private static void deleteIfExists(File file) throws IOException {
@@ -413,9 +609,19 @@ public class DiskLruCache implements Closeable {
      * exist is not currently readable. If a value is returned, it is moved to
      * the head of the LRU queue.
      */
-    public synchronized Snapshot get(String key) throws IOException {
-        checkNotClosed();
+    public Snapshot get(String key) throws IOException {
         validateKey(key);
+        ReentrantLock stripe = stripeOf(key);
+        stripe.lock();
+        try {
+            return getLocked(key);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Snapshot getLocked(String key) throws IOException {
+        checkNotClosed();
         Entry entry = lruEntries.get(key);
         if (entry == null) {
             return null;
@@ -427,7 +633,7 @@ public class DiskLruCache implements Closeable {
 
         // Open all streams eagerly to guarantee that we see a single published
         // snapshot. If we opened streams lazily then the streams could come
-        // from different edits.
+        // from different edits. Reading the streams doesn't need the lock.
         InputStream[] ins = new InputStream[valueCount];
         try {
             for (int i = 0; i < valueCount; i++) {
@@ -449,13 +655,14 @@ public class DiskLruCache implements Closeable {
             return null;
         }
 
-        redundantOpCount++;
-        journalWriter.append(READ + ' ' + key + System.lineSeparator());
+        touch(entry);
+        redundantOpCount.incrementAndGet();
+        journalWriter.append(OP_READ, key, null, false);
         if (journalRebuildRequired()) {
             executorService.submit(cleanupCallable);
         }
 
-        return new Snapshot(key, entry.sequenceNumber, ins, entry.lengths);
+        return new Snapshot(key, entry.sequenceNumber, ins, entry.lengths.clone());
     }
 
     /**
@@ -466,9 +673,19 @@ public class DiskLruCache implements Closeable {
         return edit(key, ANY_SEQUENCE_NUMBER);
     }
 
-    private synchronized Editor edit(String key, long expectedSequenceNumber) throws IOException {
-        checkNotClosed();
+    private Editor edit(String key, long expectedSequenceNumber) throws IOException {
         validateKey(key);
+        ReentrantLock stripe = stripeOf(key);
+        stripe.lock();
+        try {
+            return editLocked(key, expectedSequenceNumber);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private Editor editLocked(String key, long expectedSequenceNumber) throws IOException {
+        checkNotClosed();
         Entry entry = lruEntries.get(key);
         if (expectedSequenceNumber != ANY_SEQUENCE_NUMBER && (entry == null
                 || entry.sequenceNumber != expectedSequenceNumber)) {
@@ -483,10 +700,10 @@ public class DiskLruCache implements Closeable {
 
         Editor editor = new Editor(entry);
         entry.currentEditor = editor;
+        touch(entry);
 
-        // Flush the journal before creating files to prevent file leaks.
-        journalWriter.write(DIRTY + ' ' + key + System.lineSeparator());
-        journalWriter.flush();
+        // Files of edits not journaled before a crash are deleted on the next open.
+        journalWriter.append(OP_DIRTY, key, null, false);
         return editor;
     }
 
@@ -497,11 +714,34 @@ public class DiskLruCache implements Closeable {
         return directory;
     }
 
+    /**
+     * Sets how long the records of created entries may be buffered before written and
+     * forced to the storage device in a group commit, 0 to write through every edit.
+     * A crash loses at most the entries created within the window.
+     */
+    public void setDurabilityWindow(long window, TimeUnit timeUnit) throws IOException {
+        if (window < 0) {
+            throw new IllegalArgumentException("window < 0");
+        }
+        durabilityWindowNanos = timeUnit.toNanos(window);
+        JournalWriter journalWriter = this.journalWriter;
+        if (durabilityWindowNanos == 0 && journalWriter != null) {
+            journalWriter.flush();
+        }
+    }
+
+    /**
+     * Returns how long journal records may be buffered before written in a group commit.
+     */
+    public long getDurabilityWindow(TimeUnit timeUnit) {
+        return timeUnit.convert(durabilityWindowNanos, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Returns the maximum number of bytes that this cache should use to store
      * its data.
      */
-    public synchronized long getMaxSize() {
+    public long getMaxSize() {
         return maxSize;
     }
 
@@ -509,7 +749,7 @@ public class DiskLruCache implements Closeable {
      * Changes the maximum number of bytes the cache can store and queues a job
      * to trim the existing store, if necessary.
      */
-    public synchronized void setMaxSize(long maxSize) {
+    public void setMaxSize(long maxSize) {
         this.maxSize = maxSize;
         executorService.submit(cleanupCallable);
     }
@@ -519,11 +759,21 @@ public class DiskLruCache implements Closeable {
      * this cache. This may be greater than the max size if a background
      * deletion is pending.
      */
-    public synchronized long size() {
-        return size;
+    public long size() {
+        return size.get();
+    }
+
+    private void completeEdit(Editor editor, boolean success) throws IOException {
+        ReentrantLock stripe = stripeOf(editor.entry.key);
+        stripe.lock();
+        try {
+            completeEditLocked(editor, success);
+        } finally {
+            stripe.unlock();
+        }
     }
 
-    private synchronized void completeEdit(Editor editor, boolean success) throws IOException {
+    private void completeEditLocked(Editor editor, boolean success) throws IOException {
         Entry entry = editor.entry;
         if (entry.currentEditor != editor) {
             throw new IllegalStateException();
@@ -543,6 +793,9 @@ public class DiskLruCache implements Closeable {
             }
         }
 
+        // The clean files of a published entry are replaced in place, so the
+        // record must not be held back, or a crash would leave the old lengths.
+        boolean replacing = success && entry.readable;
         for (int i = 0; i < valueCount; i++) {
             File dirty = entry.getDirtyFile(i);
             if (success) {
@@ -552,28 +805,27 @@ public class DiskLruCache implements Closeable {
                     long oldLength = entry.lengths[i];
                     long newLength = clean.length();
                     entry.lengths[i] = newLength;
-                    size = size - oldLength + newLength;
+                    size.addAndGet(newLength - oldLength);
                 }
             } else {
                 deleteIfExists(dirty);
             }
         }
 
-        redundantOpCount++;
+        redundantOpCount.incrementAndGet();
         entry.currentEditor = null;
         if (entry.readable | success) {
             entry.readable = true;
-            journalWriter.write(CLEAN + ' ' + entry.key + entry.getLengths() + System.lineSeparator());
+            journalWriter.append(OP_CLEAN, entry.key, entry.lengths, replacing);
             if (success) {
-                entry.sequenceNumber = nextSequenceNumber++;
+                entry.sequenceNumber = nextSequenceNumber.getAndIncrement();
             }
         } else {
             lruEntries.remove(entry.key);
-            journalWriter.write(REMOVE + ' ' + entry.key + System.lineSeparator());
+            journalWriter.append(OP_REMOVE, entry.key, null, false);
         }
-        journalWriter.flush();
 
-        if (size > maxSize || journalRebuildRequired()) {
+        if (size.get() > maxSize || journalRebuildRequired()) {
             executorService.submit(cleanupCallable);
         }
     }
@@ -584,6 +836,7 @@ public class DiskLruCache implements Closeable {
      */
     private boolean journalRebuildRequired() {
         final int redundantOpCompactThreshold = 2000;
+        final int redundantOpCount = this.redundantOpCount.get();
         return redundantOpCount >= redundantOpCompactThreshold //
                 && redundantOpCount >= lruEntries.size();
     }
@@ -594,9 +847,19 @@ public class DiskLruCache implements Closeable {
      *
      * @return true if an entry was removed.
      */
-    public synchronized boolean remove(String key) throws IOException {
-        checkNotClosed();
+    public boolean remove(String key) throws IOException {
         validateKey(key);
+        ReentrantLock stripe = stripeOf(key);
+        stripe.lock();
+        try {
+            return removeLocked(key);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private boolean removeLocked(String key) throws IOException {
+        checkNotClosed();
         Entry entry = lruEntries.get(key);
         if (entry == null || entry.currentEditor != null) {
             return false;
@@ -607,12 +870,12 @@ public class DiskLruCache implements Closeable {
             if (file.exists() && !file.delete()) {
                 throw new IOException("failed to delete " + file);
             }
-            size -= entry.lengths[i];
+            size.addAndGet(-entry.lengths[i]);
             entry.lengths[i] = 0;
         }
 
-        redundantOpCount++;
-        journalWriter.append(REMOVE + ' ' + key + System.lineSeparator());
+        redundantOpCount.incrementAndGet();
+        journalWriter.append(OP_REMOVE, key, null, true);
         lruEntries.remove(key);
 
         if (journalRebuildRequired()) {
@@ -625,7 +888,7 @@ public class DiskLruCache implements Closeable {
     /**
      * Returns true if this cache has been closed.
      */
-    public synchronized boolean isClosed() {
+    public boolean isClosed() {
         return journalWriter == null;
     }
 
@@ -636,36 +899,85 @@ public class DiskLruCache implements Closeable {
     }
 
     /**
-     * Force buffered operations to the filesystem.
+     * Force buffered operations to the filesystem, and the journal to the storage device.
      */
-    public synchronized void flush() throws IOException {
+    public void flush() throws IOException {
         checkNotClosed();
         trimToSize();
-        journalWriter.flush();
+        JournalWriter journalWriter = this.journalWriter;
+        if (journalWriter != null) {
+            journalWriter.flush();
+        }
     }
 
     /**
      * Closes this cache. Stored values will remain on the filesystem.
      */
-    public synchronized void close() throws IOException {
-        if (journalWriter == null) {
-            return; // Already closed.
-        }
-        for (Entry entry : new ArrayList<Entry>(lruEntries.values())) {
-            if (entry.currentEditor != null) {
-                entry.currentEditor.abort();
+    public void close() throws IOException {
+        lockAll();
+        try {
+            if (journalWriter == null) {
+                return; // Already closed.
+            }
+            for (Entry entry : new ArrayList<Entry>(lruEntries.values())) {
+                if (entry.currentEditor != null) {
+                    entry.currentEditor.abort();
+                }
             }
+            trimToSize();
+            journalWriter.close();
+            journalWriter = null;
+        } finally {
+            unlockAll();
         }
-        trimToSize();
-        journalWriter.close();
-        journalWriter = null;
+        executorService.shutdown();
     }
 
+    /**
+     * Removes the least recently used entries until the size is within the limit.
+     * Entries being edited are skipped.
+     */
     private void trimToSize() throws IOException {
-        while (size > maxSize) {
-            Map.Entry<String, Entry> toEvict = lruEntries.entrySet().iterator().next();
-            remove(toEvict.getKey());
+        // Select the oldest entries in growing batches rather than sorting all of them.
+        for (int batch = TRIM_BATCH; size.get() > maxSize; batch <<= 1) {
+            List<Entry> oldest = entriesInAccessOrder(batch);
+            for (Entry entry : oldest) {
+                if (size.get() <= maxSize || journalWriter == null) {
+                    return;
+                }
+                remove(entry.key);
+            }
+            if (oldest.size() < batch || batch >= lruEntries.size()) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} least recently used entries, using a bounded heap.
+     */
+    private List<Entry> entriesInAccessOrder(int limit) {
+        PriorityQueue<Entry> newestFirst = new PriorityQueue<>(limit,
+                Comparator.comparingLong((Entry entry) -> entry.accessStamp).reversed());
+        for (Entry entry : lruEntries.values()) {
+            if (newestFirst.size() < limit) {
+                newestFirst.add(entry);
+            } else if (entry.accessStamp < newestFirst.peek().accessStamp) {
+                newestFirst.poll();
+                newestFirst.add(entry);
+            }
         }
+        Entry[] entries = new Entry[newestFirst.size()];
+        for (int i = entries.length - 1; i >= 0; i--) {
+            entries[i] = newestFirst.poll();
+        }
+        return java.util.Arrays.asList(entries);
+    }
+
+    private List<Entry> entriesInAccessOrder() {
+        List<Entry> entries = new ArrayList<>(lruEntries.values());
+        entries.sort(Comparator.comparingLong(entry -> entry.accessStamp));
+        return entries;
     }
 
     /**
@@ -741,6 +1053,54 @@ public class DiskLruCache implements Closeable {
             return inputStreamToString(getInputStream(index));
         }
 
+        /**
+         * Returns the read-only file channel with the value for {@code index}.
+         * The channel shares its position with {@link #getInputStream}, and is
+         * closed along with this snapshot.
+         */
+        public FileChannel getChannel(int index) {
+            return ((FileInputStream) ins[index]).getChannel();
+        }
+
+        /**
+         * Maps the value for {@code index} into memory as a read-only buffer,
+         * without copying it through the heap. The mapping stays valid after
+         * this snapshot is closed, even if the entry is edited or removed, until
+         * the buffer is garbage collected. Callers wrapping its address, e.g. in a
+         * {@link unrefined.nio.Pointer}, must keep the buffer reachable and must not
+         * write through it.
+         *
+         * @throws IllegalArgumentException if the value is larger than
+         *     {@link Integer#MAX_VALUE} bytes
+         */
+        public MappedByteBuffer map(int index) throws IOException {
+            FileChannel channel = getChannel(index);
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        /**
+         * Transfers the remaining bytes of the value for {@code index} to
+         * {@code target}, letting the system copy them directly from the file
+         * where possible, e.g. into a socket or another file.
+         *
+         * @return the count of bytes transferred
+         */
+        public long transferTo(int index, WritableByteChannel target) throws IOException {
+            FileChannel channel = getChannel(index);
+            long position = channel.position();
+            long count = channel.size() - position;
+            long transferred = 0;
+            while (transferred < count) {
+                long n = channel.transferTo(position + transferred, count - transferred, target);
+                if (n <= 0) {
+                    break;
+                }
+                transferred += n;
+            }
+            channel.position(position + transferred);
+            return transferred;
+        }
+
         /**
          * Returns the byte length of the value for {@code index}.
          */
@@ -787,7 +1147,9 @@ public class DiskLruCache implements Closeable {
          * or null if no value has been committed.
          */
         public InputStream newInputStream(int index) throws IOException {
-            synchronized (DiskLruCache.this) {
+            ReentrantLock stripe = stripeOf(entry.key);
+            stripe.lock();
+            try {
                 if (entry.currentEditor != this) {
                     throw new IllegalStateException();
                 }
@@ -799,6 +1161,8 @@ public class DiskLruCache implements Closeable {
                 } catch (FileNotFoundException e) {
                     return null;
                 }
+            } finally {
+                stripe.unlock();
             }
         }
 
@@ -819,7 +1183,9 @@ public class DiskLruCache implements Closeable {
          * IOExceptions.
          */
         public OutputStream newOutputStream(int index) throws IOException {
-            synchronized (DiskLruCache.this) {
+            ReentrantLock stripe = stripeOf(entry.key);
+            stripe.lock();
+            try {
                 if (entry.currentEditor != this) {
                     throw new IllegalStateException();
                 }
@@ -841,6 +1207,8 @@ public class DiskLruCache implements Closeable {
                     }
                 }
                 return new FaultHidingOutputStream(outputStream);
+            } finally {
+                stripe.unlock();
             }
         }
 
@@ -950,6 +1318,11 @@ public class DiskLruCache implements Closeable {
          */
         private long sequenceNumber;
 
+        /**
+         * The access stamp of the last read or edit, see {@link #touch}.
+         */
+        private volatile long accessStamp;
+
         private Entry(String key) {
             this.key = key;
             this.lengths = new long[valueCount];
@@ -993,6 +1366,146 @@ public class DiskLruCache implements Closeable {
         }
     }
 
+    /**
+     * Appends binary records to a journal file, batching them into group commits
+     * within the durability window.
+     */
+    private final class JournalWriter {
+
+        private final FileChannel channel;
+        private byte[] buffer = new byte[8192];
+        private int count = 0;
+        private boolean commitScheduled = false;
+        private IOException failure;
+
+        private JournalWriter(File file, boolean append) throws IOException {
+            this.channel = new FileOutputStream(file, append).getChannel();
+        }
+
+        private final Runnable groupCommit = () -> {
+            synchronized (JournalWriter.this) {
+                commitScheduled = false;
+                try {
+                    writeOut(true);
+                } catch (IOException e) {
+                    // Reported to the next appender
+                    failure = e;
+                }
+            }
+        };
+
+        public synchronized void writeHeader() throws IOException {
+            ensureCapacity(HEADER_LENGTH_2);
+            writeInt(MAGIC_2);
+            writeInt(VERSION_2);
+            writeInt(appVersion);
+            writeInt(valueCount);
+        }
+
+        /**
+         * Appends a record. Records other than READ are written out immediately,
+         * or within the durability window unless {@code writeThrough}.
+         */
+        public synchronized void append(byte op, String key, long[] lengths, boolean writeThrough) throws IOException {
+            if (failure != null) {
+                IOException e = failure;
+                failure = null;
+                throw e;
+            }
+            encode(op, key, lengths);
+            if (op == OP_READ) {
+                // Losing a read only affects the LRU order, write it with the next commit.
+                return;
+            }
+            long windowNanos = durabilityWindowNanos;
+            if (windowNanos == 0) {
+                writeOut(false);
+            } else if (writeThrough) {
+                writeOut(true);
+            } else if (!commitScheduled) {
+                commitScheduled = true;
+                executorService.schedule(groupCommit, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public synchronized void encode(byte op, String key, long[] lengths) throws IOException {
+            ensureCapacity(2 + key.length() + (lengths == null ? 0 : lengths.length * 10));
+            buffer[count ++] = op;
+            buffer[count ++] = (byte) key.length();
+            for (int i = 0; i < key.length(); i++) {
+                buffer[count ++] = (byte) key.charAt(i);
+            }
+            if (lengths != null) {
+                for (long length : lengths) {
+                    while ((length & ~0x7FL) != 0) {
+                        buffer[count ++] = (byte) ((length & 0x7F) | 0x80);
+                        length >>>= 7;
+                    }
+                    buffer[count ++] = (byte) length;
+                }
+            }
+        }
+
+        private void ensureCapacity(int length) throws IOException {
+            if (count >= GROUP_COMMIT_BYTES) {
+                writeOut(false);
+            }
+            if (count + length > buffer.length) {
+                buffer = java.util.Arrays.copyOf(buffer, Math.max(buffer.length << 1, count + length));
+            }
+        }
+
+        private void writeInt(int value) {
+            buffer[count ++] = (byte) (value >>> 24);
+            buffer[count ++] = (byte) (value >>> 16);
+            buffer[count ++] = (byte) (value >>> 8);
+            buffer[count ++] = (byte) value;
+        }
+
+        private void writeOut(boolean force) throws IOException {
+            if (count == 0) {
+                if (force) {
+                    channel.force(false);
+                }
+                return;
+            }
+            long start = channel.position();
+            ByteBuffer buffer = ByteBuffer.wrap(this.buffer, 0, count);
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // Cut off the partial write, so that the records are retried on a record boundary.
+                try {
+                    channel.truncate(start);
+                } catch (IOException suppressed) {
+                    // Appending after a torn record would corrupt the journal, drop the records instead.
+                    e.addSuppressed(suppressed);
+                    count = 0;
+                }
+                throw e;
+            }
+            count = 0;
+            if (force) {
+                channel.force(false);
+            }
+        }
+
+        public synchronized void flush() throws IOException {
+            writeOut(true);
+        }
+
+        public synchronized void close() throws IOException {
+            try {
+                writeOut(durabilityWindowNanos != 0);
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
     private static String readFully(Reader reader) throws IOException {
         try {
             StringWriter writer = new StringWriter();
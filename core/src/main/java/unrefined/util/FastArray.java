@@ -4,10 +4,19 @@ import unrefined.math.FastMath;
 
 import java.lang.reflect.Array;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 public final class FastArray {
 
@@ -193,8 +202,13 @@ public final class FastArray {
         if (array == null) return 0;
 
         int result = 1;
-        for (int i = 0; i < length; i ++) {
-            result = 31 * result + array[offset + i];
+        int i = offset, end = offset + length;
+        // Four elements per step, so that the multiplications don't wait on each other
+        for (int bound = end - 3; i < bound; i += 4) {
+            result = 923521 * result + 29791 * array[i] + 961 * array[i + 1] + 31 * array[i + 2] + array[i + 3];
+        }
+        for (; i < end; i ++) {
+            result = 31 * result + array[i];
         }
 
         return result;
@@ -204,8 +218,13 @@ public final class FastArray {
         if (array == null) return 0;
 
         int result = 1;
-        for (int i = 0; i < length; i ++) {
-            result = 31 * result + array[offset + i];
+        int i = offset, end = offset + length;
+        // Four elements per step, so that the multiplications don't wait on each other
+        for (int bound = end - 3; i < bound; i += 4) {
+            result = 923521 * result + 29791 * array[i] + 961 * array[i + 1] + 31 * array[i + 2] + array[i + 3];
+        }
+        for (; i < end; i ++) {
+            result = 31 * result + array[i];
         }
 
         return result;
@@ -274,8 +293,13 @@ public final class FastArray {
         if (array == null) return 0;
 
         int result = 1;
-        for (int i = 0; i < length; i ++) {
-            result = 31 * result + array[offset + i];
+        int i = offset, end = offset + length;
+        // Four elements per step, so that the multiplications don't wait on each other
+        for (int bound = end - 3; i < bound; i += 4) {
+            result = 923521 * result + 29791 * array[i] + 961 * array[i + 1] + 31 * array[i + 2] + array[i + 3];
+        }
+        for (; i < end; i ++) {
+            result = 31 * result + array[i];
         }
 
         return result;
@@ -1402,11 +1426,7 @@ public final class FastArray {
         if (aLength != bLength)
             return false;
 
-        for (int i = 0; i < aLength; i ++) {
-            if (a[aFromIndex + i] != b[bFromIndex + i]) return false;
-        }
-
-        return true;
+        return mismatchUnchecked(a, aFromIndex, b, bFromIndex, aLength) < 0;
     }
 
     public static boolean equals(boolean[] a, int aFromIndex, int aToIndex,
@@ -1436,11 +1456,7 @@ public final class FastArray {
         if (aLength != bLength)
             return false;
 
-        for (int i = 0; i < aLength; i ++) {
-            if (a[aFromIndex + i] != b[bFromIndex + i]) return false;
-        }
-
-        return true;
+        return mismatchUnchecked(a, aFromIndex, b, bFromIndex, aLength) < 0;
     }
 
     public static boolean equals(short[] a, int aFromIndex, int aToIndex,
@@ -1453,11 +1469,7 @@ public final class FastArray {
         if (aLength != bLength)
             return false;
 
-        for (int i = 0; i < aLength; i ++) {
-            if (a[aFromIndex + i] != b[bFromIndex + i]) return false;
-        }
-
-        return true;
+        return mismatchUnchecked(a, aFromIndex, b, bFromIndex, aLength) < 0;
     }
 
     public static boolean equals(int[] a, int aFromIndex, int aToIndex,
@@ -1840,6 +1852,851 @@ public final class FastArray {
         return array;
     }
 
+    public static byte[] parallelSort(byte[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static char[] parallelSort(char[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static short[] parallelSort(short[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static int[] parallelSort(int[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static long[] parallelSort(long[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static float[] parallelSort(float[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static double[] parallelSort(double[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static <T extends Comparable<? super T>> T[] parallelSort(T[] array) {
+        Arrays.parallelSort(array);
+        return array;
+    }
+
+    public static <T> T[] parallelSort(T[] array, Comparator<? super T> comparator) {
+        Arrays.parallelSort(array, comparator);
+        return array;
+    }
+
+    public static byte[] parallelSort(byte[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static char[] parallelSort(char[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static short[] parallelSort(short[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static int[] parallelSort(int[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static long[] parallelSort(long[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static float[] parallelSort(float[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static double[] parallelSort(double[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static <T extends Comparable<? super T>> T[] parallelSort(T[] array, int fromIndex, int toIndex) {
+        Arrays.parallelSort(array, fromIndex, toIndex);
+        return array;
+    }
+
+    public static <T> T[] parallelSort(T[] array, int fromIndex, int toIndex, Comparator<? super T> comparator) {
+        Arrays.parallelSort(array, fromIndex, toIndex, comparator);
+        return array;
+    }
+
+    /**
+     * Below this length, radix sorts fall back to {@link Arrays#sort}, which wins on small arrays.
+     */
+    private static final int RADIX_SORT_THRESHOLD = 1024;
+
+    public static int[] radixSort(int[] array) {
+        return radixSort(array, 0, array.length);
+    }
+
+    public static long[] radixSort(long[] array) {
+        return radixSort(array, 0, array.length);
+    }
+
+    public static float[] radixSort(float[] array) {
+        return radixSort(array, 0, array.length);
+    }
+
+    public static double[] radixSort(double[] array) {
+        return radixSort(array, 0, array.length);
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending order, by an LSD radix sort of 8-bit digits.
+     * Takes linear time and an auxiliary array of the range length; digits which are the same for all elements are skipped.
+     *
+     * @param array the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @return the array
+     */
+    public static int[] radixSort(int[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        if (toIndex - fromIndex < RADIX_SORT_THRESHOLD) Arrays.sort(array, fromIndex, toIndex);
+        else radixSortUnchecked(array, fromIndex, toIndex, Integer.MIN_VALUE);
+        return array;
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending order, by an LSD radix sort of 8-bit digits.
+     * Takes linear time and an auxiliary array of the range length; digits which are the same for all elements are skipped.
+     *
+     * @param array the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @return the array
+     */
+    public static long[] radixSort(long[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        if (toIndex - fromIndex < RADIX_SORT_THRESHOLD) Arrays.sort(array, fromIndex, toIndex);
+        else radixSortUnchecked(array, fromIndex, toIndex, Long.MIN_VALUE);
+        return array;
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending order, by an LSD radix sort of 8-bit digits.
+     * The order is the same as {@link Float#compare}: {@code -0.0f} comes before {@code 0.0f}, and {@code NaN}s come last.
+     *
+     * @param array the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @return the array
+     */
+    public static float[] radixSort(float[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        if (toIndex - fromIndex < RADIX_SORT_THRESHOLD) Arrays.sort(array, fromIndex, toIndex);
+        else {
+            // NaNs are moved to the end as they are, only the other values go through the keys
+            int[] keys = new int[toIndex - fromIndex];
+            int count = 0, nanCount = 0;
+            for (int i = fromIndex; i < toIndex; i ++) {
+                float value = array[i];
+                if (value != value) array[fromIndex + nanCount ++] = value;
+                else keys[count ++] = floatToSortableBits(value);
+            }
+            radixSortUnchecked(keys, 0, count, 0);
+            System.arraycopy(array, fromIndex, array, toIndex - nanCount, nanCount);
+            for (int i = 0; i < count; i ++) {
+                array[fromIndex + i] = sortableBitsToFloat(keys[i]);
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Sorts the specified range of the array into ascending order, by an LSD radix sort of 8-bit digits.
+     * The order is the same as {@link Double#compare}: {@code -0.0d} comes before {@code 0.0d}, and {@code NaN}s come last.
+     *
+     * @param array the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @return the array
+     */
+    public static double[] radixSort(double[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        if (toIndex - fromIndex < RADIX_SORT_THRESHOLD) Arrays.sort(array, fromIndex, toIndex);
+        else {
+            // NaNs are moved to the end as they are, only the other values go through the keys
+            long[] keys = new long[toIndex - fromIndex];
+            int count = 0, nanCount = 0;
+            for (int i = fromIndex; i < toIndex; i ++) {
+                double value = array[i];
+                if (value != value) array[fromIndex + nanCount ++] = value;
+                else keys[count ++] = doubleToSortableBits(value);
+            }
+            radixSortUnchecked(keys, 0, count, 0);
+            System.arraycopy(array, fromIndex, array, toIndex - nanCount, nanCount);
+            for (int i = 0; i < count; i ++) {
+                array[fromIndex + i] = sortableBitsToDouble(keys[i]);
+            }
+        }
+        return array;
+    }
+
+    /**
+     * Maps the float to an int whose unsigned order is the order of {@link Float#compare}.
+     * All {@code NaN}s are mapped to the canonical one, so that they sort last and tie.
+     */
+    private static int floatToSortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    private static float sortableBitsToFloat(int bits) {
+        return Float.intBitsToFloat(bits ^ ((~bits >> 31) | Integer.MIN_VALUE));
+    }
+
+    private static long doubleToSortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static double sortableBitsToDouble(long bits) {
+        return Double.longBitsToDouble(bits ^ ((~bits >> 63) | Long.MIN_VALUE));
+    }
+
+    /**
+     * Computes the histograms of all digits in one pass, then scatters the elements between the range and
+     * a buffer once per non-trivial digit. Keys are compared as {@code key ^ flip} unsigned;
+     * pass {@code MIN_VALUE} for signed order, and {@code 0} for unsigned order.
+     */
+    private static void radixSortUnchecked(int[] array, int fromIndex, int toIndex, int flip) {
+        int length = toIndex - fromIndex;
+        int[] counts = new int[4 << 8];
+        for (int i = fromIndex; i < toIndex; i ++) {
+            int key = array[i] ^ flip;
+            counts[key & 0xFF] ++;
+            counts[0x100 | ((key >>> 8) & 0xFF)] ++;
+            counts[0x200 | ((key >>> 16) & 0xFF)] ++;
+            counts[0x300 | (key >>> 24)] ++;
+        }
+        int[] src = array, dst = null;
+        int srcOffset = fromIndex, dstOffset = 0;
+        for (int digit = 0; digit < 4; digit ++) {
+            int base = digit << 8;
+            if (!toOffsets(counts, base, length)) continue;
+            if (dst == null) dst = new int[length];
+            int shift = digit << 3;
+            for (int i = srcOffset, end = srcOffset + length; i < end; i ++) {
+                int value = src[i];
+                dst[dstOffset + counts[base | (((value ^ flip) >>> shift) & 0xFF)] ++] = value;
+            }
+            int[] array0 = src; src = dst; dst = array0;
+            int offset0 = srcOffset; srcOffset = dstOffset; dstOffset = offset0;
+        }
+        if (src != array) System.arraycopy(src, 0, array, fromIndex, length);
+    }
+
+    /**
+     * @see #radixSortUnchecked(int[], int, int, int)
+     */
+    private static void radixSortUnchecked(long[] array, int fromIndex, int toIndex, long flip) {
+        int length = toIndex - fromIndex;
+        int[] counts = new int[8 << 8];
+        for (int i = fromIndex; i < toIndex; i ++) {
+            long key = array[i] ^ flip;
+            for (int digit = 0; digit < 8; digit ++) {
+                counts[(digit << 8) | (int) ((key >>> (digit << 3)) & 0xFF)] ++;
+            }
+        }
+        long[] src = array, dst = null;
+        int srcOffset = fromIndex, dstOffset = 0;
+        for (int digit = 0; digit < 8; digit ++) {
+            int base = digit << 8;
+            if (!toOffsets(counts, base, length)) continue;
+            if (dst == null) dst = new long[length];
+            int shift = digit << 3;
+            for (int i = srcOffset, end = srcOffset + length; i < end; i ++) {
+                long value = src[i];
+                dst[dstOffset + counts[base | (int) (((value ^ flip) >>> shift) & 0xFF)] ++] = value;
+            }
+            long[] array0 = src; src = dst; dst = array0;
+            int offset0 = srcOffset; srcOffset = dstOffset; dstOffset = offset0;
+        }
+        if (src != array) System.arraycopy(src, 0, array, fromIndex, length);
+    }
+
+    /**
+     * Turns the histogram of a digit into the starting offsets of its buckets.
+     *
+     * @return {@code false} if all elements fall into one bucket, and the pass can be skipped
+     */
+    private static boolean toOffsets(int[] counts, int base, int length) {
+        int sum = 0;
+        for (int i = base, end = base + 256; i < end; i ++) {
+            int count = counts[i];
+            if (count == length) return false;
+            counts[i] = sum;
+            sum += count;
+        }
+        return true;
+    }
+
+    public static int[] sortIndirect(int[] array) {
+        return sortIndirect(array, 0, array.length);
+    }
+
+    public static int[] sortIndirect(long[] array) {
+        return sortIndirect(array, 0, array.length);
+    }
+
+    public static int[] sortIndirect(float[] array) {
+        return sortIndirect(array, 0, array.length);
+    }
+
+    public static int[] sortIndirect(double[] array) {
+        return sortIndirect(array, 0, array.length);
+    }
+
+    public static <T extends Comparable<? super T>> int[] sortIndirect(T[] array) {
+        return sortIndirect(array, 0, array.length, Comparator.naturalOrder());
+    }
+
+    public static <T> int[] sortIndirect(T[] array, Comparator<? super T> comparator) {
+        return sortIndirect(array, 0, array.length, comparator);
+    }
+
+    /**
+     * Returns the permutation which sorts the specified range of the array into ascending order, without modifying it.
+     * That is, {@code array[result[0]] <= array[result[1]] <= ...}; the sort is stable, equal elements keep their order.
+     *
+     * @param array the array
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @return the indices of the elements, in sorted order
+     */
+    public static int[] sortIndirect(int[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        int[] keys = new int[toIndex - fromIndex];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = array[fromIndex + i] ^ Integer.MIN_VALUE;
+        }
+        return radixSortIndirect(keys, fromIndex);
+    }
+
+    /**
+     * @see #sortIndirect(int[], int, int)
+     */
+    public static int[] sortIndirect(long[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        long[] keys = new long[toIndex - fromIndex];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = array[fromIndex + i] ^ Long.MIN_VALUE;
+        }
+        return radixSortIndirect(keys, fromIndex);
+    }
+
+    /**
+     * @see #sortIndirect(int[], int, int)
+     * @see #radixSort(float[], int, int)
+     */
+    public static int[] sortIndirect(float[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        int[] keys = new int[toIndex - fromIndex];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = floatToSortableBits(array[fromIndex + i]);
+        }
+        return radixSortIndirect(keys, fromIndex);
+    }
+
+    /**
+     * @see #sortIndirect(int[], int, int)
+     * @see #radixSort(double[], int, int)
+     */
+    public static int[] sortIndirect(double[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        long[] keys = new long[toIndex - fromIndex];
+        for (int i = 0; i < keys.length; i ++) {
+            keys[i] = doubleToSortableBits(array[fromIndex + i]);
+        }
+        return radixSortIndirect(keys, fromIndex);
+    }
+
+    public static <T extends Comparable<? super T>> int[] sortIndirect(T[] array, int fromIndex, int toIndex) {
+        return sortIndirect(array, fromIndex, toIndex, Comparator.naturalOrder());
+    }
+
+    /**
+     * Returns the permutation which sorts the specified range of the array according to the comparator, without modifying it.
+     * The sort is a stable merge sort of the indices.
+     *
+     * @param array the array
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     * @param comparator the comparator
+     * @return the indices of the elements, in sorted order
+     */
+    public static <T> int[] sortIndirect(T[] array, int fromIndex, int toIndex, Comparator<? super T> comparator) {
+        rangeCheck(array, fromIndex, toIndex);
+        Objects.requireNonNull(comparator);
+        int[] indices = new int[toIndex - fromIndex];
+        for (int i = 0; i < indices.length; i ++) {
+            indices[i] = fromIndex + i;
+        }
+        mergeSortIndirect(array, indices.clone(), indices, 0, indices.length, comparator);
+        return indices;
+    }
+
+    private static <T> void mergeSortIndirect(T[] array, int[] src, int[] dst, int low, int high, Comparator<? super T> comparator) {
+        int length = high - low;
+        if (length < 16) {
+            for (int i = low + 1; i < high; i ++) {
+                int index = dst[i];
+                T element = array[index];
+                int j = i;
+                while (j > low && comparator.compare(array[dst[j - 1]], element) > 0) {
+                    dst[j] = dst[j - 1];
+                    j --;
+                }
+                dst[j] = index;
+            }
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        mergeSortIndirect(array, dst, src, low, mid, comparator);
+        mergeSortIndirect(array, dst, src, mid, high, comparator);
+        if (comparator.compare(array[src[mid - 1]], array[src[mid]]) <= 0) {
+            System.arraycopy(src, low, dst, low, length);
+            return;
+        }
+        for (int i = low, p = low, q = mid; i < high; i ++) {
+            if (q >= high || (p < mid && comparator.compare(array[src[p]], array[src[q]]) <= 0)) dst[i] = src[p ++];
+            else dst[i] = src[q ++];
+        }
+    }
+
+    /**
+     * Sorts the unsigned keys along with their indices, which start at {@code offset}.
+     */
+    private static int[] radixSortIndirect(int[] keys, int offset) {
+        int length = keys.length;
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i ++) {
+            indices[i] = offset + i;
+        }
+        int[] counts = new int[4 << 8];
+        for (int key : keys) {
+            counts[key & 0xFF] ++;
+            counts[0x100 | ((key >>> 8) & 0xFF)] ++;
+            counts[0x200 | ((key >>> 16) & 0xFF)] ++;
+            counts[0x300 | (key >>> 24)] ++;
+        }
+        int[] keysBuffer = null, indicesBuffer = null;
+        for (int digit = 0; digit < 4; digit ++) {
+            int base = digit << 8;
+            if (!toOffsets(counts, base, length)) continue;
+            if (keysBuffer == null) {
+                keysBuffer = new int[length];
+                indicesBuffer = new int[length];
+            }
+            int shift = digit << 3;
+            for (int i = 0; i < length; i ++) {
+                int key = keys[i];
+                int position = counts[base | ((key >>> shift) & 0xFF)] ++;
+                keysBuffer[position] = key;
+                indicesBuffer[position] = indices[i];
+            }
+            int[] keys0 = keys; keys = keysBuffer; keysBuffer = keys0;
+            int[] indices0 = indices; indices = indicesBuffer; indicesBuffer = indices0;
+        }
+        return indices;
+    }
+
+    /**
+     * @see #radixSortIndirect(int[], int)
+     */
+    private static int[] radixSortIndirect(long[] keys, int offset) {
+        int length = keys.length;
+        int[] indices = new int[length];
+        for (int i = 0; i < length; i ++) {
+            indices[i] = offset + i;
+        }
+        int[] counts = new int[8 << 8];
+        for (long key : keys) {
+            for (int digit = 0; digit < 8; digit ++) {
+                counts[(digit << 8) | (int) ((key >>> (digit << 3)) & 0xFF)] ++;
+            }
+        }
+        long[] keysBuffer = null;
+        int[] indicesBuffer = null;
+        for (int digit = 0; digit < 8; digit ++) {
+            int base = digit << 8;
+            if (!toOffsets(counts, base, length)) continue;
+            if (keysBuffer == null) {
+                keysBuffer = new long[length];
+                indicesBuffer = new int[length];
+            }
+            int shift = digit << 3;
+            for (int i = 0; i < length; i ++) {
+                long key = keys[i];
+                int position = counts[base | (int) ((key >>> shift) & 0xFF)] ++;
+                keysBuffer[position] = key;
+                indicesBuffer[position] = indices[i];
+            }
+            long[] keys0 = keys; keys = keysBuffer; keysBuffer = keys0;
+            int[] indices0 = indices; indices = indicesBuffer; indicesBuffer = indices0;
+        }
+        return indices;
+    }
+
+    public static Spliterator.OfInt spliterator(byte[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfInt spliterator(byte[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        return new ByteArraySpliterator(array, fromIndex, toIndex);
+    }
+
+    public static IntStream stream(byte[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static IntStream stream(byte[] array, int fromIndex, int toIndex) {
+        return StreamSupport.intStream(spliterator(array, fromIndex, toIndex), false);
+    }
+
+    public static Spliterator.OfInt spliterator(char[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfInt spliterator(char[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        return new CharArraySpliterator(array, fromIndex, toIndex);
+    }
+
+    public static IntStream stream(char[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static IntStream stream(char[] array, int fromIndex, int toIndex) {
+        return StreamSupport.intStream(spliterator(array, fromIndex, toIndex), false);
+    }
+
+    public static Spliterator.OfInt spliterator(short[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfInt spliterator(short[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        return new ShortArraySpliterator(array, fromIndex, toIndex);
+    }
+
+    public static IntStream stream(short[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static IntStream stream(short[] array, int fromIndex, int toIndex) {
+        return StreamSupport.intStream(spliterator(array, fromIndex, toIndex), false);
+    }
+
+    public static Spliterator.OfInt spliterator(int[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfInt spliterator(int[] array, int fromIndex, int toIndex) {
+        return Arrays.spliterator(array, fromIndex, toIndex);
+    }
+
+    public static IntStream stream(int[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static IntStream stream(int[] array, int fromIndex, int toIndex) {
+        return Arrays.stream(array, fromIndex, toIndex);
+    }
+
+    public static Spliterator.OfLong spliterator(long[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfLong spliterator(long[] array, int fromIndex, int toIndex) {
+        return Arrays.spliterator(array, fromIndex, toIndex);
+    }
+
+    public static LongStream stream(long[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static LongStream stream(long[] array, int fromIndex, int toIndex) {
+        return Arrays.stream(array, fromIndex, toIndex);
+    }
+
+    public static Spliterator.OfDouble spliterator(float[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfDouble spliterator(float[] array, int fromIndex, int toIndex) {
+        rangeCheck(array, fromIndex, toIndex);
+        return new FloatArraySpliterator(array, fromIndex, toIndex);
+    }
+
+    public static DoubleStream stream(float[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static DoubleStream stream(float[] array, int fromIndex, int toIndex) {
+        return StreamSupport.doubleStream(spliterator(array, fromIndex, toIndex), false);
+    }
+
+    public static Spliterator.OfDouble spliterator(double[] array) {
+        return spliterator(array, 0, array.length);
+    }
+
+    public static Spliterator.OfDouble spliterator(double[] array, int fromIndex, int toIndex) {
+        return Arrays.spliterator(array, fromIndex, toIndex);
+    }
+
+    public static DoubleStream stream(double[] array) {
+        return stream(array, 0, array.length);
+    }
+
+    public static DoubleStream stream(double[] array, int fromIndex, int toIndex) {
+        return Arrays.stream(array, fromIndex, toIndex);
+    }
+
+    /**
+     * A spliterator over a {@code byte} array, widening the elements, which splits the range in halves.
+     */
+    private static final class ByteArraySpliterator implements Spliterator.OfInt {
+
+        private final byte[] array;
+        private int index;
+        private final int fence;
+
+        ByteArraySpliterator(byte[] array, int origin, int fence) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int low = index, middle = (low + fence) >>> 1;
+            return low >= middle ? null : new ByteArraySpliterator(array, low, index = middle);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(array[index ++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            byte[] array = this.array;
+            int fence = this.fence;
+            int i = index;
+            index = fence;
+            for (; i < fence; i ++) {
+                action.accept(array[i]);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+    }
+
+    /**
+     * A spliterator over a {@code char} array, widening the elements, which splits the range in halves.
+     */
+    private static final class CharArraySpliterator implements Spliterator.OfInt {
+
+        private final char[] array;
+        private int index;
+        private final int fence;
+
+        CharArraySpliterator(char[] array, int origin, int fence) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int low = index, middle = (low + fence) >>> 1;
+            return low >= middle ? null : new CharArraySpliterator(array, low, index = middle);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(array[index ++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            char[] array = this.array;
+            int fence = this.fence;
+            int i = index;
+            index = fence;
+            for (; i < fence; i ++) {
+                action.accept(array[i]);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+    }
+
+    /**
+     * A spliterator over a {@code short} array, widening the elements, which splits the range in halves.
+     */
+    private static final class ShortArraySpliterator implements Spliterator.OfInt {
+
+        private final short[] array;
+        private int index;
+        private final int fence;
+
+        ShortArraySpliterator(short[] array, int origin, int fence) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int low = index, middle = (low + fence) >>> 1;
+            return low >= middle ? null : new ShortArraySpliterator(array, low, index = middle);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(array[index ++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            short[] array = this.array;
+            int fence = this.fence;
+            int i = index;
+            index = fence;
+            for (; i < fence; i ++) {
+                action.accept(array[i]);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+    }
+
+    /**
+     * A spliterator over a {@code float} array, widening the elements, which splits the range in halves.
+     */
+    private static final class FloatArraySpliterator implements Spliterator.OfDouble {
+
+        private final float[] array;
+        private int index;
+        private final int fence;
+
+        FloatArraySpliterator(float[] array, int origin, int fence) {
+            this.array = array;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            int low = index, middle = (low + fence) >>> 1;
+            return low >= middle ? null : new FloatArraySpliterator(array, low, index = middle);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            if (index < fence) {
+                action.accept(array[index ++]);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            Objects.requireNonNull(action);
+            float[] array = this.array;
+            int fence = this.fence;
+            int i = index;
+            index = fence;
+            for (; i < fence; i ++) {
+                action.accept(array[i]);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE;
+        }
+
+    }
+
     public static String toString(byte[] array) {
         return Arrays.toString(array);
     }
@@ -2536,10 +3393,9 @@ public final class FastArray {
         if (a == b)
             return -1;
 
-        for (int i = 0; i < length; i++) {
-            if (a[i] != b[i])
-                return i;
-        }
+        int i = mismatchUnchecked(a, 0, b, 0, length);
+        if (i >= 0)
+            return i;
 
         return a.length != b.length ? length : -1;
     }
@@ -2549,10 +3405,9 @@ public final class FastArray {
         if (a == b)
             return -1;
 
-        for (int i = 0; i < length; i++) {
-            if (a[i] != b[i])
-                return i;
-        }
+        int i = mismatchUnchecked(a, 0, b, 0, length);
+        if (i >= 0)
+            return i;
 
         return a.length != b.length ? length : -1;
     }
@@ -2562,10 +3417,9 @@ public final class FastArray {
         if (a == b)
             return -1;
 
-        for (int i = 0; i < length; i++) {
-            if (a[i] != b[i])
-                return i;
-        }
+        int i = mismatchUnchecked(a, 0, b, 0, length);
+        if (i >= 0)
+            return i;
 
         return a.length != b.length ? length : -1;
     }
@@ -2699,10 +3553,9 @@ public final class FastArray {
         int aLength = aToIndex - aFromIndex;
         int bLength = bToIndex - bFromIndex;
         int length = Math.min(aLength, bLength);
-        for (int i = 0; i < length; i++) {
-            if (a[aFromIndex++] != b[bFromIndex++])
-                return i;
-        }
+        int i = mismatchUnchecked(a, aFromIndex, b, bFromIndex, length);
+        if (i >= 0)
+            return i;
 
         return aLength != bLength ? length : -1;
     }
@@ -2716,10 +3569,9 @@ public final class FastArray {
         int aLength = aToIndex - aFromIndex;
         int bLength = bToIndex - bFromIndex;
         int length = Math.min(aLength, bLength);
-        for (int i = 0; i < length; i++) {
-            if (a[aFromIndex++] != b[bFromIndex++])
-                return i;
-        }
+        int i = mismatchUnchecked(a, aFromIndex, b, bFromIndex, length);
+        if (i >= 0)
+            return i;
 
         return aLength != bLength ? length : -1;
     }
@@ -2733,10 +3585,9 @@ public final class FastArray {
         int aLength = aToIndex - aFromIndex;
         int bLength = bToIndex - bFromIndex;
         int length = Math.min(aLength, bLength);
-        for (int i = 0; i < length; i++) {
-            if (a[aFromIndex++] != b[bFromIndex++])
-                return i;
-        }
+        int i = mismatchUnchecked(a, aFromIndex, b, bFromIndex, length);
+        if (i >= 0)
+            return i;
 
         return aLength != bLength ? length : -1;
     }
@@ -2835,6 +3686,82 @@ public final class FastArray {
         return aLength != bLength ? length : -1;
     }
 
+    /**
+     * Below this length, comparing word by word doesn't pay off the setup.
+     */
+    private static final int MISMATCH_WORD_THRESHOLD = 16;
+
+    /**
+     * Whether heap buffer views read longs in single unaligned loads, which holds for HotSpot of JDK 9+.
+     * On JDK 8 and Android they assemble the bytes one by one, and are slower than comparing bytes.
+     */
+    private static final boolean MISMATCH_WORDS = isUnalignedLongAccessFast();
+
+    private static boolean isUnalignedLongAccessFast() {
+        try {
+            String version = System.getProperty("java.specification.version");
+            return version != null && !version.startsWith("1.") && !version.startsWith("0.")
+                    && !"Dalvik".equals(System.getProperty("java.vm.name"));
+        }
+        catch (SecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compares 8 bytes at a time where {@link #MISMATCH_WORDS}, read as little-endian longs from heap buffer views;
+     * the lowest set bit of the XOR locates the first mismatch. Otherwise compares byte by byte.
+     *
+     * @return the relative index of the first mismatch, or -1
+     */
+    private static int mismatchUnchecked(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int i = 0;
+        if (MISMATCH_WORDS && length >= MISMATCH_WORD_THRESHOLD) {
+            ByteBuffer aBuffer = ByteBuffer.wrap(a).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer bBuffer = ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN);
+            for (int bound = length - 7; i < bound; i += 8) {
+                long difference = aBuffer.getLong(aOffset + i) ^ bBuffer.getLong(bOffset + i);
+                if (difference != 0) return i + (Long.numberOfTrailingZeros(difference) >>> 3);
+            }
+        }
+        for (; i < length; i ++) {
+            if (a[aOffset + i] != b[bOffset + i]) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Folds 4 elements into one test per step, and only locates the mismatch within the step that failed.
+     *
+     * @return the relative index of the first mismatch, or -1
+     */
+    private static int mismatchUnchecked(char[] a, int aOffset, char[] b, int bOffset, int length) {
+        int i = 0;
+        for (int bound = length - 3; i < bound; i += 4) {
+            int ai = aOffset + i, bi = bOffset + i;
+            if (((a[ai] ^ b[bi]) | (a[ai + 1] ^ b[bi + 1]) | (a[ai + 2] ^ b[bi + 2]) | (a[ai + 3] ^ b[bi + 3])) != 0) break;
+        }
+        for (; i < length; i ++) {
+            if (a[aOffset + i] != b[bOffset + i]) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @see #mismatchUnchecked(char[], int, char[], int, int)
+     */
+    private static int mismatchUnchecked(short[] a, int aOffset, short[] b, int bOffset, int length) {
+        int i = 0;
+        for (int bound = length - 3; i < bound; i += 4) {
+            int ai = aOffset + i, bi = bOffset + i;
+            if (((a[ai] ^ b[bi]) | (a[ai + 1] ^ b[bi + 1]) | (a[ai + 2] ^ b[bi + 2]) | (a[ai + 3] ^ b[bi + 3])) != 0) break;
+        }
+        for (; i < length; i ++) {
+            if (a[aOffset + i] != b[bOffset + i]) return i;
+        }
+        return -1;
+    }
+
     public static int mismatch(boolean[] a, int aOffset, boolean[] b, int bOffset, int length) {
         return mismatch(a, aOffset, aOffset + length, b, bOffset, bOffset + length);
     }
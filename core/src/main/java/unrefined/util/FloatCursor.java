@@ -0,0 +1,38 @@
+package unrefined.util;
+
+/**
+ * A cursor over the {@code float}s of a container, which doesn't box them.
+ * <pre>{@code
+ * FloatCursor cursor = array.cursor();
+ * while (cursor.next()) {
+ *     use(cursor.index(), cursor.value());
+ * }
+ * }</pre>
+ *
+ * @see GrowableFloatArray#cursor()
+ * @see SparseFloatArray#cursor()
+ */
+public interface FloatCursor {
+
+    /**
+     * Moves to the next element.
+     *
+     * @return {@code false} if there are no more elements
+     */
+    boolean next();
+
+    /**
+     * Returns the index of the current element, or its key in a sparse array.
+     *
+     * @return the index
+     */
+    int index();
+
+    /**
+     * Returns the current element.
+     *
+     * @return the element
+     */
+    float value();
+
+}
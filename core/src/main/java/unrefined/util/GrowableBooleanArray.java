@@ -17,6 +17,8 @@
 
 package unrefined.util;
 
+import unrefined.util.function.BooleanSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -699,6 +701,59 @@ public class GrowableBooleanArray implements Cloneable, Iterable<Boolean> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public BooleanCursor cursor() {
+        return new BooleanCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private boolean value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public boolean value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableBooleanArray is modified by the action.
+     */
+    public void forEachBoolean(BooleanSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        boolean[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsBoolean(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     @Override
     public Iterator<Boolean> iterator() {
         return new Iterator<Boolean>() {
@@ -17,11 +17,15 @@
 
 package unrefined.util;
 
+import unrefined.util.function.ByteSlot;
+
 import java.nio.charset.Charset;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableByteArray</code> is a variable size contiguous indexable array of bytes. The size of
@@ -716,6 +720,69 @@ public class GrowableByteArray implements Cloneable, Iterable<Byte> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public ByteCursor cursor() {
+        return new ByteCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private byte value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public byte value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableByteArray is modified by the action.
+     */
+    public void forEachByte(ByteSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        byte[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsByte(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them. The elements are widened to {@code int}s.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(FastArray.spliterator(elements, 0, size), false);
+    }
+
     @Override
     public Iterator<Byte> iterator() {
         return new Iterator<Byte>() {
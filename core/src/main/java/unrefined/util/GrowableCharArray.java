@@ -17,10 +17,14 @@
 
 package unrefined.util;
 
+import unrefined.util.function.CharSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableCharArray</code> is a variable size contiguous indexable array of characters. The size of
@@ -707,6 +711,69 @@ public class GrowableCharArray implements Cloneable, Iterable<Character> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public CharCursor cursor() {
+        return new CharCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private char value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public char value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableCharArray is modified by the action.
+     */
+    public void forEachChar(CharSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        char[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsChar(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them. The elements are widened to {@code int}s.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(FastArray.spliterator(elements, 0, size), false);
+    }
+
     @Override
     public Iterator<Character> iterator() {
         return new Iterator<Character>() {
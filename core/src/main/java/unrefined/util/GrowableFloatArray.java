@@ -17,10 +17,14 @@
 
 package unrefined.util;
 
+import unrefined.util.function.FloatSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableFloatArray</code> is a variable size contiguous indexable array of floats. The size of
@@ -699,6 +703,69 @@ public class GrowableFloatArray implements Cloneable, Iterable<Float> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public FloatCursor cursor() {
+        return new FloatCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private float value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public float value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableFloatArray is modified by the action.
+     */
+    public void forEachFloat(FloatSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        float[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsFloat(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them. The elements are widened to {@code double}s.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(FastArray.spliterator(elements, 0, size), false);
+    }
+
     @Override
     public Iterator<Float> iterator() {
         return new Iterator<Float>() {
@@ -17,10 +17,15 @@
 
 package unrefined.util;
 
+import unrefined.util.function.IntSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableIntArray</code> is a variable size contiguous indexable array of integers. The size of
@@ -699,6 +704,80 @@ public class GrowableIntArray implements Cloneable, Iterable<Integer> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private int value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public int value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableIntArray is modified by the action.
+     */
+    public void forEachInt(IntSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        int[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsInt(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the elements, which doesn't box them.
+     * The spliterator is bound to the elements at the time of the call, and splits in halves.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return FastArray.spliterator(elements, 0, size);
+    }
+
     @Override
     public Iterator<Integer> iterator() {
         return new Iterator<Integer>() {
@@ -17,10 +17,15 @@
 
 package unrefined.util;
 
+import unrefined.util.function.LongSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableLongArray</code> is a variable size contiguous indexable array of longs. The size of
@@ -699,6 +704,80 @@ public class GrowableLongArray implements Cloneable, Iterable<Long> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public LongCursor cursor() {
+        return new LongCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private long value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public long value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableLongArray is modified by the action.
+     */
+    public void forEachLong(LongSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        long[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsLong(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the elements, which doesn't box them.
+     * The spliterator is bound to the elements at the time of the call, and splits in halves.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return FastArray.spliterator(elements, 0, size);
+    }
+
     @Override
     public Iterator<Long> iterator() {
         return new Iterator<Long>() {
@@ -17,10 +17,14 @@
 
 package unrefined.util;
 
+import unrefined.util.function.ShortSlot;
+
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * <code>GrowableShortArray</code> is a variable size contiguous indexable array of shorts. The size of
@@ -699,6 +703,69 @@ public class GrowableShortArray implements Cloneable, Iterable<Short> {
         }
     }
 
+    /**
+     * Returns a cursor over the elements, which doesn't box them.
+     *
+     * @return the cursor
+     */
+    public ShortCursor cursor() {
+        return new ShortCursor() {
+            private final int expectedModCount = modCount;
+            private int index = -1;
+            private short value;
+            @Override
+            public boolean next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index + 1 >= size) {
+                    return false;
+                }
+                value = elements[++index];
+                return true;
+            }
+            @Override
+            public int index() {
+                return index;
+            }
+            @Override
+            public short value() {
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each element in order, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this GrowableShortArray is modified by the action.
+     */
+    public void forEachShort(ShortSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        short[] elements = this.elements;
+        int size = this.size;
+        for (int i = 0; i < size && expectedModCount == modCount; i++) {
+            slot.acceptAsShort(elements[i]);
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the elements, which doesn't box them. The elements are widened to {@code int}s.
+     * The stream is bound to the elements at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(FastArray.spliterator(elements, 0, size), false);
+    }
+
     @Override
     public Iterator<Short> iterator() {
         return new Iterator<Short>() {
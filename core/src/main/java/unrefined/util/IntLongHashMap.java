@@ -0,0 +1,437 @@
+package unrefined.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * IntLongHashMaps map ints to longs with open addressing, as a hash-based alternative of
+ * {@link SparseLongArray} for large numbers of mappings.
+ * Lookups and inserts are O(1) on average, and neither keys nor values are boxed.
+ *
+ * <p>The mappings are stored densely in insertion order (until removals), and located through
+ * a linear probing table of their indices, whose size is kept a power of 2 below the load factor.
+ * So it's possible to iterate over the mappings with {@link #keyAt(int)} and {@link #valueAt(int)}
+ * like the sparse arrays; unlike them, the keys are not sorted, and removing a mapping
+ * moves the last mapping into its index. To remove while iterating, iterate in descending index order.</p>
+ */
+public class IntLongHashMap implements Cloneable, Iterable<Long> {
+
+    /**
+     * The default load factor, 0.5.
+     */
+    public static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private static final int MAXIMUM_TABLE_LENGTH = 1 << 30;
+
+    private final float loadFactor;
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * The index + 1 of the mapping in each slot, 0 if the slot is empty.
+     */
+    private int[] table;
+    private int shift;
+    private int threshold;
+
+    /**
+     * Creates a new IntLongHashMap containing no mappings.
+     */
+    public IntLongHashMap() {
+        this(10);
+    }
+
+    /**
+     * Creates a new IntLongHashMap containing no mappings that will not
+     * require any additional memory allocation to store the specified
+     * number of mappings.
+     */
+    public IntLongHashMap(int initialCapacity) {
+        this(initialCapacity, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Creates a new IntLongHashMap containing no mappings that will not
+     * require any additional memory allocation to store the specified
+     * number of mappings, with the specified load factor of the probing table.
+     */
+    public IntLongHashMap(int initialCapacity, float loadFactor) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Illegal initial capacity: " + initialCapacity);
+        if (!(loadFactor > 0 && loadFactor < 1)) throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        this.loadFactor = loadFactor;
+        if (initialCapacity == 0) {
+            keys = EmptyArray.INT;
+            values = EmptyArray.LONG;
+        } else {
+            keys = new int[initialCapacity];
+            values = new long[initialCapacity];
+        }
+        size = 0;
+        allocateTable(tableLengthFor(initialCapacity));
+    }
+
+    public float getLoadFactor() {
+        return loadFactor;
+    }
+
+    private int tableLengthFor(int capacity) {
+        double length = Math.max(capacity + 1, 2) / (double) loadFactor;
+        if (length >= MAXIMUM_TABLE_LENGTH) return MAXIMUM_TABLE_LENGTH;
+        int n = Integer.highestOneBit((int) Math.ceil(length));
+        return n < length ? n << 1 : n;
+    }
+
+    private void allocateTable(int length) {
+        table = new int[length];
+        shift = 32 - Integer.numberOfTrailingZeros(length);
+        threshold = Math.min((int) (length * loadFactor), length - 1);
+    }
+
+    private int hash(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * Returns the slot of the specified key, or -1 if not mapped.
+     */
+    private int slotOf(int key) {
+        int mask = table.length - 1;
+        for (int slot = hash(key); ; slot = (slot + 1) & mask) {
+            int index = table[slot];
+            if (index == 0) return -1;
+            if (keys[index - 1] == key) return slot;
+        }
+    }
+
+    @Override
+    public IntLongHashMap clone() {
+        IntLongHashMap clone;
+        try {
+            clone = (IntLongHashMap) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new UnexpectedError(e);
+        }
+        clone.keys = keys.clone();
+        clone.values = values.clone();
+        clone.table = table.clone();
+        return clone;
+    }
+
+    /**
+     * Returns true if the key exists in the map, false otherwise.
+     */
+    public boolean containsKey(int key) {
+        return slotOf(key) >= 0;
+    }
+
+    /**
+     * Gets the long mapped from the specified key, or <code>0</code>
+     * if no such mapping has been made.
+     */
+    public long get(int key) {
+        return get(key, 0);
+    }
+
+    /**
+     * Gets the long mapped from the specified key, or the specified value
+     * if no such mapping has been made.
+     */
+    public long get(int key, long valueIfKeyNotFound) {
+        int slot = slotOf(key);
+
+        if (slot < 0) {
+            return valueIfKeyNotFound;
+        } else {
+            return values[table[slot] - 1];
+        }
+    }
+
+    /**
+     * Removes the mapping from the specified key, if there was any.
+     */
+    public void remove(int key) {
+        int slot = slotOf(key);
+
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Removes the mapping at the given index, and moves the last mapping into the index.
+     *
+     * <p>For indices outside of the range <code>0...size()-1</code>,
+     * an {@link ArrayIndexOutOfBoundsException} is thrown.</p>
+     */
+    public void removeAt(int index) {
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        removeSlot(slotOf(keys[index]));
+    }
+
+    /**
+     * Remove a range of mappings as a batch.
+     *
+     * @param index Index to begin at
+     * @param size Number of mappings to remove
+     *
+     * <p>For indices outside of the range <code>0...size()-1</code>,
+     * the behavior is undefined.</p>
+     */
+    public void removeAtRange(int index, int size) {
+        final int end = Math.min(this.size, index + size);
+        // Descending, so every removed index still holds its original mapping
+        for (int i = end - 1; i >= index; i --) {
+            removeAt(i);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int index = table[slot] - 1;
+
+        // Backward shift deletion, keeps the probe sequences intact without tombstones
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+            int entry = table[next];
+            if (entry == 0) break;
+            int home = hash(keys[entry - 1]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = entry;
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+
+        int last = size - 1;
+        if (index != last) {
+            table[slotOf(keys[last])] = index + 1;
+            keys[index] = keys[last];
+            values[index] = values[last];
+        }
+        size = last;
+    }
+
+    /**
+     * Adds a mapping from the specified key to the specified value,
+     * replacing the previous mapping from the specified key if there
+     * was one.
+     */
+    public void put(int key, long value) {
+        int mask = table.length - 1;
+        int slot = hash(key);
+        for (; ; slot = (slot + 1) & mask) {
+            int index = table[slot];
+            if (index == 0) break;
+            if (keys[index - 1] == key) {
+                values[index - 1] = value;
+                return;
+            }
+        }
+
+        if (size >= threshold && table.length < MAXIMUM_TABLE_LENGTH) {
+            rehash(table.length << 1);
+            mask = table.length - 1;
+            slot = hash(key);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        if (size >= keys.length) {
+            int n = size < 4 ? 8 : size * 2;
+
+            int[] nkeys = new int[n];
+            long[] nvalues = new long[n];
+
+            System.arraycopy(keys, 0, nkeys, 0, size);
+            System.arraycopy(values, 0, nvalues, 0, size);
+
+            keys = nkeys;
+            values = nvalues;
+        }
+
+        keys[size] = key;
+        values[size] = value;
+        size ++;
+        table[slot] = size;
+    }
+
+    private void rehash(int length) {
+        allocateTable(length);
+        int mask = length - 1;
+        for (int i = 0; i < size; i ++) {
+            int slot = hash(keys[i]);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Returns the number of key-value mappings that this IntLongHashMap
+     * currently stores.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the key from the <code>index</code>th key-value mapping that this
+     * IntLongHashMap stores.
+     *
+     * <p>For indices outside of the range <code>0...size()-1</code>,
+     * an {@link ArrayIndexOutOfBoundsException} is thrown.</p>
+     */
+    public int keyAt(int index) {
+        if (index >= size) {
+            // The array might be slightly bigger than size, in which case, indexing won't fail.
+            // Check if exception should be thrown outside of the critical path.
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return keys[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, returns
+     * the value from the <code>index</code>th key-value mapping that this
+     * IntLongHashMap stores.
+     *
+     * <p>For indices outside of the range <code>0...size()-1</code>,
+     * an {@link ArrayIndexOutOfBoundsException} is thrown.</p>
+     */
+    public long valueAt(int index) {
+        if (index >= size) {
+            // The array might be slightly bigger than size, in which case, indexing won't fail.
+            // Check if exception should be thrown outside of the critical path.
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    /**
+     * Given an index in the range <code>0...size()-1</code>, sets a new
+     * value for the <code>index</code>th key-value mapping that this
+     * IntLongHashMap stores.
+     *
+     * <p>For indices outside of the range <code>0...size()-1</code>,
+     * an {@link ArrayIndexOutOfBoundsException} is thrown.</p>
+     */
+    public void setValueAt(int index, long value) {
+        if (index >= size) {
+            // The array might be slightly bigger than size, in which case, indexing won't fail.
+            // Check if exception should be thrown outside of the critical path.
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Returns the index for which {@link #keyAt} would return the
+     * specified key, or a negative number if the specified
+     * key is not mapped.
+     */
+    public int indexOfKey(int key) {
+        int slot = slotOf(key);
+        return slot < 0 ? -1 : table[slot] - 1;
+    }
+
+    /**
+     * Returns an index for which {@link #valueAt} would return the
+     * specified key, or a negative number if no keys map to the
+     * specified value.
+     * <p>Beware that this is a linear search, unlike lookups by key,
+     * and that multiple keys can map to the same value and this will
+     * find only one of them.
+     */
+    public int indexOfValue(long value) {
+        for (int i = 0; i < size; i ++) {
+            if (values[i] == value) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Removes all key-value mappings from this IntLongHashMap.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntLongHashMap)) return false;
+
+        IntLongHashMap that = (IntLongHashMap) o;
+
+        if (size != that.size) return false;
+        for (int i = 0; i < size; i ++) {
+            int key = keys[i];
+            if (!that.containsKey(key) || valueAt(i) != that.get(key)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // Independent of the mapping order
+        int result = 0;
+        for (int i = 0; i < size; i ++) {
+            int key = keys[i];
+            long value = values[i];
+            result += (key) ^ ((int) (value ^ (value >>> 32)));
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>This implementation composes a string by iterating over its mappings.
+     */
+    @Override
+    public String toString() {
+        if (size() <= 0) {
+            return "{}";
+        }
+
+        StringBuilder buffer = new StringBuilder(size * 28);
+        buffer.append('{');
+        for (int i = 0; i < size; i ++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            int key = keyAt(i);
+            buffer.append(key);
+            buffer.append('=');
+            long value = valueAt(i);
+            buffer.append(value);
+        }
+        buffer.append('}');
+        return buffer.toString();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<Long>() {
+            private int index = -1;
+            @Override
+            public boolean hasNext() {
+                return index + 1 < size();
+            }
+            @Override
+            public Long next() {
+                index ++;
+                return valueAt(index);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,485 @@
+package unrefined.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache which computes missing values by {@link #load}, on top of a {@link LruCache}.
+ *
+ * <p>Unlike {@link LruCache#create}, loads are deduplicated: while a value is loading,
+ * other threads requesting the same key wait for that load instead of starting their own,
+ * so an expensive miss on a hot key doesn't cause a stampede. {@link #getAsync} loads on
+ * the {@link #getExecutor() executor}, returning a future shared by all concurrent requests.
+ *
+ * <p>Entries can expire a fixed duration after their last write and/or access, after which
+ * they are loaded again. With a refresh interval, an entry older than the interval is still
+ * returned, while a single {@link #reload} runs in the background to replace it.
+ * <pre>   {@code
+ *   LoadingCache<String, Texture> textures = new LoadingCache<String, Texture>(64) {
+ *       protected Texture load(String path) {
+ *           return Texture.read(path);
+ *       }
+ *   };
+ *   textures.setExpireAfterAccess(10, TimeUnit.MINUTES);
+ *   textures.setRefreshAfterWrite(1, TimeUnit.MINUTES);
+ * }</pre>
+ *
+ * <p>This class is thread-safe. This class does not allow null to be used as a key or value;
+ * a null value from {@link #load} is not cached.
+ */
+public class LoadingCache<K, V> {
+
+    private final LruCache<K, Entry<V>> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    private volatile Executor executor;
+    private volatile long expireAfterWriteNanos = 0;
+    private volatile long expireAfterAccessNanos = 0;
+    private volatile long refreshAfterWriteNanos = 0;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     */
+    public LoadingCache(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * @param maxSize for caches that do not override {@link #sizeOf}, this is
+     *     the maximum number of entries in the cache. For all other caches,
+     *     this is the maximum sum of the sizes of the entries in this cache.
+     * @param executor the executor of asynchronous loads and refreshes,
+     *     {@code null} for {@link Threading#getTaskScopeExecutor()}
+     */
+    public LoadingCache(int maxSize, Executor executor) {
+        this.cache = new LruCache<K, Entry<V>>(maxSize) {
+            @Override
+            protected void entryRemoved(boolean evicted, K key, Entry<V> oldValue, Entry<V> newValue) {
+                LoadingCache.this.entryRemoved(evicted, key, oldValue.value, newValue == null ? null : newValue.value);
+            }
+            @Override
+            protected int sizeOf(K key, Entry<V> value) {
+                return LoadingCache.this.sizeOf(key, value.value);
+            }
+        };
+        this.executor = executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Executor getExecutor() {
+        Executor executor = this.executor;
+        return executor == null ? Threading.getInstance().getTaskScopeExecutor() : executor;
+    }
+
+    /**
+     * Sets the duration after which an entry expires since written, 0 to never expire.
+     */
+    public void setExpireAfterWrite(long duration, TimeUnit timeUnit) {
+        if (duration < 0) throw new IllegalArgumentException("duration < 0");
+        expireAfterWriteNanos = timeUnit.toNanos(duration);
+    }
+
+    public long getExpireAfterWrite(TimeUnit timeUnit) {
+        return timeUnit.convert(expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the duration after which an entry expires since last read or written, 0 to never expire.
+     */
+    public void setExpireAfterAccess(long duration, TimeUnit timeUnit) {
+        if (duration < 0) throw new IllegalArgumentException("duration < 0");
+        expireAfterAccessNanos = timeUnit.toNanos(duration);
+    }
+
+    public long getExpireAfterAccess(TimeUnit timeUnit) {
+        return timeUnit.convert(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the duration after which an entry is reloaded in the background on its next read
+     * since written, 0 to never refresh. The stale value is returned until reloaded.
+     */
+    public void setRefreshAfterWrite(long duration, TimeUnit timeUnit) {
+        if (duration < 0) throw new IllegalArgumentException("duration < 0");
+        refreshAfterWriteNanos = timeUnit.toNanos(duration);
+    }
+
+    public long getRefreshAfterWrite(TimeUnit timeUnit) {
+        return timeUnit.convert(refreshAfterWriteNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets the size of the cache.
+     *
+     * @param maxSize The new maximum size.
+     */
+    public void resize(int maxSize) {
+        cache.resize(maxSize);
+    }
+
+    /**
+     * Returns the value for {@code key} if it exists in the cache and is not expired, or can be
+     * loaded by {@link #load}. If another thread is loading the same key, waits for it instead.
+     * This returns null if a value is not cached and cannot be loaded.
+     */
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Entry<V> entry = getPresent(key);
+        if (entry != null) {
+            return entry.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> loading = loads.putIfAbsent(key, future);
+        if (loading != null) {
+            return join(loading);
+        }
+        try {
+            V value = loadPresent(key);
+            future.complete(value);
+            return value;
+        }
+        catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            loads.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns a future of the value for {@code key}, which is completed already if it exists
+     * in the cache and is not expired, or else completed by {@link #load} on the executor.
+     * Concurrent requests of the same key share the same future.
+     */
+    public final CompletableFuture<V> getAsync(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+
+        Entry<V> entry = getPresent(key);
+        if (entry != null) {
+            return CompletableFuture.completedFuture(entry.value);
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> loading = loads.putIfAbsent(key, future);
+        if (loading != null) {
+            return loading;
+        }
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(loadPresent(key));
+                }
+                catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+                finally {
+                    loads.remove(key, future);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            loads.remove(key, future);
+        }
+        return future;
+    }
+
+    /**
+     * Returns the unexpired entry for {@code key}, counting a hit, or counts a miss.
+     * Triggers a refresh if the entry is due.
+     */
+    private Entry<V> getPresent(K key) {
+        Entry<V> entry = cache.get(key);
+        long now = System.nanoTime();
+        if (entry != null && !isExpired(entry, now)) {
+            hitCount.increment();
+            entry.accessTime = now;
+            long refreshAfterWriteNanos = this.refreshAfterWriteNanos;
+            if (refreshAfterWriteNanos > 0 && now - entry.writeTime >= refreshAfterWriteNanos
+                    && Entry.REFRESHING.compareAndSet(entry, 0, 1)) {
+                refresh(key, entry);
+            }
+            return entry;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Loads and caches the value for {@code key}, with the load deduplicated by the caller.
+     */
+    private V loadPresent(K key) {
+        // Another load might have completed between the miss and taking over the load
+        Entry<V> entry = cache.get(key);
+        if (entry != null && !isExpired(entry, System.nanoTime())) {
+            return entry.value;
+        }
+
+        V value;
+        try {
+            value = load(key);
+        }
+        catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            throw e;
+        }
+        if (value == null) {
+            loadFailureCount.increment();
+            return null;
+        }
+        loadCount.increment();
+        Entry<V> loaded = new Entry<>(value, System.nanoTime());
+        synchronized (cache) {
+            // Don't overwrite a value put, or resurrect one removed, during the load
+            if (cache.get(key) == entry) cache.put(key, loaded);
+        }
+        return value;
+    }
+
+    private void refresh(K key, Entry<V> entry) {
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    V value = reload(key, entry.value);
+                    if (value != null) {
+                        refreshCount.increment();
+                        Entry<V> refreshed = new Entry<>(value, System.nanoTime());
+                        synchronized (cache) {
+                            // Don't overwrite a value put meanwhile
+                            if (cache.get(key) == entry) cache.put(key, refreshed);
+                        }
+                    }
+                }
+                finally {
+                    // Allow to retry on failure
+                    entry.refreshing = 0;
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            entry.refreshing = 0;
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        long expireAfterWriteNanos = this.expireAfterWriteNanos;
+        long expireAfterAccessNanos = this.expireAfterAccessNanos;
+        return (expireAfterWriteNanos > 0 && now - entry.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - entry.accessTime >= expireAfterAccessNanos);
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            else if (cause instanceof Error) throw (Error) cause;
+            else throw e;
+        }
+    }
+
+    /**
+     * Caches {@code value} for {@code key}, replacing the loaded value if any.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    public final V put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        Entry<V> previous = cache.put(key, new Entry<>(value, System.nanoTime()));
+        return previous == null ? null : previous.value;
+    }
+
+    /**
+     * Removes the entry for {@code key} if it exists.
+     *
+     * @return the previous value mapped by {@code key}.
+     */
+    public final V remove(K key) {
+        Entry<V> previous = cache.remove(key);
+        return previous == null ? null : previous.value;
+    }
+
+    /**
+     * Removes the expired entries, which are otherwise only replaced on their next read, or evicted.
+     * Holds the lock of the underlying cache, so {@link #entryRemoved} is called with it held.
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+        synchronized (cache) {
+            for (Map.Entry<K, Entry<V>> entry : cache.snapshot().entrySet()) {
+                if (isExpired(entry.getValue(), now)) cache.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Called for entries that have been evicted or removed, see {@link LruCache#entryRemoved}.
+     * The default implementation does nothing.
+     */
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {}
+
+    /**
+     * Called after a cache miss or expiration to compute a value for the corresponding key.
+     * Returns the computed value or null if no value can be computed. The
+     * default implementation returns null.
+     *
+     * <p>The method is called without synchronization, but at most once at a time per key
+     * (apart from {@link #reload}).
+     */
+    protected V load(K key) {
+        return null;
+    }
+
+    /**
+     * Called on the executor to compute a new value for an entry due to refresh.
+     * Returns the computed value or null to keep the old value. The default
+     * implementation calls {@link #load}.
+     */
+    protected V reload(K key, V oldValue) {
+        return load(key);
+    }
+
+    /**
+     * Returns the size of the entry for {@code key} and {@code value} in
+     * user-defined units, see {@link LruCache#sizeOf}.
+     */
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    /**
+     * Clear the cache, calling {@link #entryRemoved} on each removed entry.
+     */
+    public final void evictAll() {
+        cache.evictAll();
+    }
+
+    /**
+     * For caches that do not override {@link #sizeOf}, this returns the number
+     * of entries in the cache, including expired ones not removed yet. For all other
+     * caches, this returns the sum of the sizes of the entries in this cache.
+     */
+    public final int size() {
+        return cache.size();
+    }
+
+    public final int maxSize() {
+        return cache.maxSize();
+    }
+
+    /**
+     * Returns the number of times an unexpired value was present in the cache.
+     */
+    public final int hitCount() {
+        return hitCount.intValue();
+    }
+
+    /**
+     * Returns the number of times a value was absent or expired, including requests
+     * which waited for the load of another one.
+     */
+    public final int missCount() {
+        return missCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #load} returned a value.
+     */
+    public final int loadCount() {
+        return loadCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #load} returned null or threw.
+     */
+    public final int loadFailureCount() {
+        return loadFailureCount.intValue();
+    }
+
+    /**
+     * Returns the number of times {@link #reload} replaced a value.
+     */
+    public final int refreshCount() {
+        return refreshCount.intValue();
+    }
+
+    public final int evictionCount() {
+        return cache.evictionCount();
+    }
+
+    /**
+     * Returns a copy of the current contents of the cache, ordered from least
+     * recently accessed to most recently accessed, including expired entries not removed yet.
+     */
+    public final Map<K, V> snapshot() {
+        Map<K, V> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<K, Entry<V>> entry : cache.snapshot().entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().value);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        int hitCount = hitCount();
+        int accesses = hitCount + missCount();
+        int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return getClass().getName() + "@" + Integer.toHexString(hashCode())
+                + '{' +
+                "maxSize=" + maxSize() +
+                ", hits=" + hitCount +
+                ", misses=" + missCount() +
+                ", hitRate=" + hitPercent + '%' +
+                ", loads=" + loadCount() +
+                '}';
+    }
+
+    private static final class Entry<V> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Entry> REFRESHING = AtomicIntegerFieldUpdater.newUpdater(Entry.class, "refreshing");
+
+        private final V value;
+        private final long writeTime;
+        private volatile long accessTime;
+        private volatile int refreshing = 0;
+
+        public Entry(V value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+        }
+
+    }
+
+}
@@ -0,0 +1,704 @@
+package unrefined.util;
+
+import unrefined.util.function.CharSlot;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * <code>SegmentedCharArray</code> is a variable size indexable array of {@code char}s, stored in fixed-size chunks.
+ * <p>
+ * Unlike {@link GrowableCharArray}, growing never copies the elements: appending past the capacity
+ * only allocates another chunk, and the chunk directory which grows holds references only. So the peak
+ * memory stays close to the size, there are no long pauses on growth, and the size can exceed the
+ * {@code int} range. Elements are indexed with {@code long}s. The chunk size is a power of 2, so that an
+ * index splits into a chunk and an offset with a shift and a mask.
+ * <p>
+ * Elements are added and removed at the end; bulk operations copy a chunk at a time.
+ */
+public class SegmentedCharArray implements Cloneable, Iterable<Character> {
+
+    /**
+     * The default chunk size, 16384 elements.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * The maximum chunk size, 2<sup>30</sup> elements.
+     */
+    public static final int MAX_CHUNK_SIZE = 1 << 30;
+
+    /**
+     * A counter for changes to the list.
+     */
+    protected int modCount;
+
+    /**
+     * The number of elements or the size of the SegmentedCharArray.
+     */
+    private long size;
+
+    private final int chunkShift;
+    private final int chunkMask;
+
+    /**
+     * The chunks of the SegmentedCharArray, the first {@link #chunkCount} are allocated.
+     */
+    private char[][] chunks;
+    private int chunkCount;
+
+    /**
+     * Constructs a new SegmentedCharArray using the default chunk size.
+     */
+    public SegmentedCharArray() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new SegmentedCharArray using the specified chunk size.
+     *
+     * @param chunkSize
+     *            the count of elements per chunk, rounded up to a power of 2.
+     * @throws IllegalArgumentException
+     *             if {@code chunkSize} is not in range [1, {@link #MAX_CHUNK_SIZE}].
+     */
+    public SegmentedCharArray(int chunkSize) {
+        if (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("chunkSize out of range [1, " + MAX_CHUNK_SIZE + "]: " + chunkSize);
+        }
+        chunkShift = 32 - Integer.numberOfLeadingZeros(chunkSize - 1);
+        chunkMask = (1 << chunkShift) - 1;
+        chunks = new char[8][];
+        chunkCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Returns the count of elements per chunk.
+     *
+     * @return the chunk size of this SegmentedCharArray.
+     */
+    public int getChunkSize() {
+        return chunkMask + 1;
+    }
+
+    /**
+     * Adds the specified element at the end of this SegmentedCharArray.
+     *
+     * @param e
+     *            the element to add to the SegmentedCharArray.
+     * @return {@code true}
+     */
+    public boolean add(char e) {
+        int offset = (int) size & chunkMask;
+        int chunk = (int) (size >>> chunkShift);
+        if (offset == 0 && chunk == chunkCount) {
+            addChunk();
+        }
+        chunks[chunk][offset] = e;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Adds all the elements of the specified array at the end of this SegmentedCharArray.
+     *
+     * @param src
+     *            the array to add.
+     */
+    public void addAll(char[] src) {
+        addAll(src, 0, src.length);
+    }
+
+    /**
+     * Adds the elements in the specified range of the array at the end of this SegmentedCharArray,
+     * a chunk at a time.
+     *
+     * @param src
+     *            the array to add.
+     * @param offset starting position in the source array.
+     * @param length the number of array elements to be added.
+     * @throws ArrayIndexOutOfBoundsException
+     *             if the range is out of the bounds of {@code src}.
+     */
+    public void addAll(char[] src, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > src.length - length) {
+            throw new ArrayIndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", array length: " + src.length);
+        }
+        ensureCapacity(size + length);
+        long index = size;
+        while (length > 0) {
+            int chunkOffset = (int) index & chunkMask;
+            int count = Math.min(length, chunkMask + 1 - chunkOffset);
+            System.arraycopy(src, offset, chunks[(int) (index >>> chunkShift)], chunkOffset, count);
+            offset += count;
+            length -= count;
+            index += count;
+        }
+        size = index;
+        modCount++;
+    }
+
+    /**
+     * Adds all the elements of the specified GrowableCharArray at the end of this SegmentedCharArray,
+     * a chunk at a time.
+     *
+     * @param src
+     *            the GrowableCharArray to add.
+     */
+    public void addAll(GrowableCharArray src) {
+        int length = src.size();
+        ensureCapacity(size + length);
+        long index = size;
+        int offset = 0;
+        while (offset < length) {
+            int chunkOffset = (int) index & chunkMask;
+            int count = Math.min(length - offset, chunkMask + 1 - chunkOffset);
+            src.copyTo(offset, chunks[(int) (index >>> chunkShift)], chunkOffset, count);
+            offset += count;
+            index += count;
+        }
+        size = index;
+        modCount++;
+    }
+
+    /**
+     * Adds all the elements of the specified SegmentedCharArray at the end of this SegmentedCharArray,
+     * a chunk at a time.
+     *
+     * @param src
+     *            the SegmentedCharArray to add.
+     */
+    public void addAll(SegmentedCharArray src) {
+        long length = src.size;
+        ensureCapacity(size + length);
+        long index = size;
+        long offset = 0;
+        while (offset < length) {
+            int count = (int) Math.min(length - offset, src.chunkMask + 1 - ((int) offset & src.chunkMask));
+            count = Math.min(count, chunkMask + 1 - ((int) index & chunkMask));
+            System.arraycopy(src.chunks[(int) (offset >>> src.chunkShift)], (int) offset & src.chunkMask,
+                    chunks[(int) (index >>> chunkShift)], (int) index & chunkMask, count);
+            offset += count;
+            index += count;
+        }
+        size = index;
+        modCount++;
+    }
+
+    /**
+     * Returns the number of elements this SegmentedCharArray can hold without allocating chunks.
+     *
+     * @return the capacity of this SegmentedCharArray.
+     * @see #ensureCapacity
+     * @see #size
+     */
+    public long capacity() {
+        return (long) chunkCount << chunkShift;
+    }
+
+    /**
+     * Removes all elements from this SegmentedCharArray, leaving the size zero and the
+     * capacity unchanged.
+     *
+     * @see #isEmpty
+     * @see #size
+     */
+    public void clear() {
+        modCount++;
+        size = 0;
+    }
+
+    /**
+     * Returns a new SegmentedCharArray with the same elements, size and chunk size
+     * as this SegmentedCharArray, and the chunks which hold them.
+     *
+     * @return a copy of this SegmentedCharArray.
+     * @see Cloneable
+     */
+    @Override
+    public SegmentedCharArray clone() {
+        SegmentedCharArray clone;
+        try {
+            clone = (SegmentedCharArray) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new UnexpectedError(e);
+        }
+        int count = (int) ((size + chunkMask) >>> chunkShift);
+        clone.chunks = new char[Math.max(8, count)][];
+        for (int i = 0; i < count; i++) {
+            clone.chunks[i] = chunks[i].clone();
+        }
+        clone.chunkCount = count;
+        return clone;
+    }
+
+    /**
+     * Searches this SegmentedCharArray for the specified element.
+     *
+     * @param e
+     *            the element to look for in this SegmentedCharArray.
+     * @return {@code true} if element is in this SegmentedCharArray,
+     *         {@code false} otherwise.
+     * @see #indexOf(char)
+     * @see #indexOf(char, long)
+     */
+    public boolean contains(char e) {
+        return indexOf(e, 0) != -1;
+    }
+
+    /**
+     * Ensures that this SegmentedCharArray can hold the specified number of elements
+     * without allocating chunks.
+     *
+     * @param minimumCapacity
+     *            the minimum number of elements that this SegmentedCharArray will hold
+     *            before allocating chunks.
+     * @throws IllegalArgumentException
+     *             if {@code minimumCapacity} needs more than {@link Integer#MAX_VALUE} chunks.
+     * @see #capacity
+     */
+    public void ensureCapacity(long minimumCapacity) {
+        long count = (minimumCapacity + chunkMask) >>> chunkShift;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity too large: " + minimumCapacity);
+        }
+        while (chunkCount < count) {
+            addChunk();
+        }
+    }
+
+    private void addChunk() {
+        if (chunkCount == chunks.length) {
+            // Copies chunk references only, never the elements
+            int length = (int) Math.min((long) chunks.length << 1, Integer.MAX_VALUE);
+            chunks = Arrays.copyOf(chunks, length);
+        }
+        chunks[chunkCount++] = new char[chunkMask + 1];
+    }
+
+    /**
+     * Returns the element at the specified index in this SegmentedCharArray.
+     *
+     * @param index
+     *            the index of the element to return in this SegmentedCharArray.
+     * @return the element at the specified index.
+     * @throws ArrayIndexOutOfBoundsException
+     *                if {@code index < 0 || index >= size()}.
+     * @see #size
+     */
+    public char get(long index) {
+        if (index >= 0 && index < size) {
+            return chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+        }
+        throw new ArrayIndexOutOfBoundsException("index: " + index);
+    }
+
+    /**
+     * Returns the first element in this SegmentedCharArray.
+     *
+     * @return the element at the first position.
+     * @throws NoSuchElementException
+     *                if this SegmentedCharArray is empty.
+     * @see #get
+     * @see #getLast
+     */
+    public char getFirst() {
+        if (size > 0) {
+            return chunks[0][0];
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Returns the last element in this SegmentedCharArray.
+     *
+     * @return the element at the last position.
+     * @throws NoSuchElementException
+     *                if this SegmentedCharArray is empty.
+     * @see #get
+     * @see #getFirst
+     */
+    public char getLast() {
+        if (size > 0) {
+            long index = size - 1;
+            return chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Searches in this SegmentedCharArray for the index of the specified element. The search
+     * for the element starts at the beginning and moves towards the end.
+     *
+     * @param e
+     *            the element to find in this SegmentedCharArray.
+     * @return the index in this SegmentedCharArray of the specified element, -1 if the
+     *         element isn't found.
+     * @see #contains
+     * @see #lastIndexOf(char)
+     */
+    public long indexOf(char e) {
+        return indexOf(e, 0);
+    }
+
+    /**
+     * Searches in this SegmentedCharArray for the index of the specified element. The search
+     * for the element starts at the specified index and moves towards the end, a chunk at a time.
+     *
+     * @param e
+     *            the element to find in this SegmentedCharArray.
+     * @param index
+     *            the index at which to start searching.
+     * @return the index in this SegmentedCharArray of the specified element, -1 if the
+     *         element isn't found.
+     * @throws ArrayIndexOutOfBoundsException
+     *                if {@code index < 0}.
+     * @see #contains
+     * @see #lastIndexOf(char, long)
+     */
+    public long indexOf(char e, long index) {
+        if (index < 0) {
+            throw new ArrayIndexOutOfBoundsException("index: " + index);
+        }
+        while (index < size) {
+            char[] chunk = chunks[(int) (index >>> chunkShift)];
+            int from = (int) index & chunkMask;
+            int to = (int) Math.min(chunkMask + 1, from + (size - index));
+            for (int i = from; i < to; i++) {
+                if (e == chunk[i]) {
+                    return index + (i - from);
+                }
+            }
+            index += to - from;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns if this SegmentedCharArray has no elements, a size of zero.
+     *
+     * @return {@code true} if this SegmentedCharArray has no elements, {@code false}
+     *         otherwise.
+     * @see #size
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Searches in this SegmentedCharArray for the index of the specified element. The search
+     * for the element starts at the end and moves towards the start.
+     *
+     * @param e
+     *            the element to find in this SegmentedCharArray.
+     * @return the index in this SegmentedCharArray of the specified element, -1 if the
+     *         element isn't found.
+     * @see #contains
+     * @see #indexOf(char)
+     */
+    public long lastIndexOf(char e) {
+        return lastIndexOf(e, size - 1);
+    }
+
+    /**
+     * Searches in this SegmentedCharArray for the index of the specified element. The search
+     * for the element starts at the specified index and moves towards the start.
+     *
+     * @param e
+     *            the element to find in this SegmentedCharArray.
+     * @param index
+     *            the index at which to start searching.
+     * @return the index in this SegmentedCharArray of the specified element, -1 if the
+     *         element isn't found.
+     * @throws ArrayIndexOutOfBoundsException
+     *                if {@code index >= size()}.
+     * @see #contains
+     * @see #indexOf(char, long)
+     */
+    public long lastIndexOf(char e, long index) {
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException("index: " + index);
+        }
+        while (index >= 0) {
+            char[] chunk = chunks[(int) (index >>> chunkShift)];
+            int from = (int) index & chunkMask;
+            for (int i = from; i >= 0; i--) {
+                if (e == chunk[i]) {
+                    return index - (from - i);
+                }
+            }
+            index -= from + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the last element of this SegmentedCharArray.
+     *
+     * @return the removed element.
+     * @throws NoSuchElementException
+     *                if this SegmentedCharArray is empty.
+     */
+    public char removeLast() {
+        if (size > 0) {
+            long index = --size;
+            modCount++;
+            return chunks[(int) (index >>> chunkShift)][(int) index & chunkMask];
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Replaces the element at the specified index in this SegmentedCharArray with the
+     * specified element.
+     *
+     * @param index
+     *            the index at which to put the specified element.
+     * @param e
+     *            the element to put in this SegmentedCharArray.
+     * @return the previous element at the index.
+     * @throws ArrayIndexOutOfBoundsException
+     *                if {@code index < 0 || index >= size()}.
+     * @see #size
+     */
+    public char set(long index, char e) {
+        if (index >= 0 && index < size) {
+            char[] chunk = chunks[(int) (index >>> chunkShift)];
+            int offset = (int) index & chunkMask;
+            char result = chunk[offset];
+            chunk[offset] = e;
+            return result;
+        }
+        throw new ArrayIndexOutOfBoundsException("index: " + index);
+    }
+
+    /**
+     * Sets the size of this SegmentedCharArray to the specified size. If there are more
+     * than length elements in this SegmentedCharArray, the elements at end are lost. If
+     * there are less than length elements in the SegmentedCharArray, the additional
+     * elements contain {@code (char) 0}.
+     *
+     * @param length
+     *            the new size of this SegmentedCharArray.
+     * @throws IllegalArgumentException
+     *             if {@code length < 0}.
+     * @see #size
+     */
+    public void setSize(long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length < 0");
+        }
+        if (length == size) {
+            return;
+        }
+        if (length > size) {
+            ensureCapacity(length);
+            // Elements lost by previous shrinks may still be there
+            long index = size;
+            while (index < length) {
+                int from = (int) index & chunkMask;
+                int to = (int) Math.min(chunkMask + 1, from + (length - index));
+                Arrays.fill(chunks[(int) (index >>> chunkShift)], from, to, (char) 0);
+                index += to - from;
+            }
+        }
+        size = length;
+        modCount++;
+    }
+
+    /**
+     * Returns the number of elements in this SegmentedCharArray.
+     *
+     * @return the number of elements in this SegmentedCharArray.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Releases the chunks which hold no elements.
+     *
+     * @see #capacity
+     * @see #ensureCapacity
+     * @see #size
+     */
+    public void trimToSize() {
+        int count = (int) ((size + chunkMask) >>> chunkShift);
+        if (count < chunkCount) {
+            chunks = Arrays.copyOf(chunks, Math.max(8, count));
+            chunkCount = count;
+        }
+    }
+
+    /**
+     * Copies elements of this SegmentedCharArray into the supplied array, a chunk at a time.
+     *
+     * @param srcOffset starting position in this SegmentedCharArray.
+     * @param dst
+     *            the array into which the elements are copied.
+     * @param dstOffset starting position in the destination array.
+     * @param length the number of elements to be copied.
+     * @throws IndexOutOfBoundsException
+     *             if {@code dst} is not big enough or {@code length} too large.
+     */
+    public void copyTo(long srcOffset, char[] dst, int dstOffset, int length) {
+        if (srcOffset < 0 || length < 0 || srcOffset > size - length) {
+            throw new ArrayIndexOutOfBoundsException("srcOffset: " + srcOffset + ", length: " + length + ", size: " + size);
+        }
+        if (dstOffset < 0 || dstOffset > dst.length - length) {
+            throw new ArrayIndexOutOfBoundsException("dstOffset: " + dstOffset + ", length: " + length + ", array length: " + dst.length);
+        }
+        while (length > 0) {
+            int chunkOffset = (int) srcOffset & chunkMask;
+            int count = Math.min(length, chunkMask + 1 - chunkOffset);
+            System.arraycopy(chunks[(int) (srcOffset >>> chunkShift)], chunkOffset, dst, dstOffset, count);
+            srcOffset += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies elements of the supplied array into this SegmentedCharArray, a chunk at a time.
+     *
+     * @param src
+     *            the array from which the elements are copied.
+     * @param srcOffset starting position in the source array.
+     * @param dstOffset starting position in this SegmentedCharArray.
+     * @param length the number of elements to be copied.
+     * @throws IndexOutOfBoundsException
+     *             if {@code src} is not big enough or {@code length} too large.
+     */
+    public void copyFrom(char[] src, int srcOffset, long dstOffset, int length) {
+        if (dstOffset < 0 || length < 0 || dstOffset > size - length) {
+            throw new ArrayIndexOutOfBoundsException("dstOffset: " + dstOffset + ", length: " + length + ", size: " + size);
+        }
+        if (srcOffset < 0 || srcOffset > src.length - length) {
+            throw new ArrayIndexOutOfBoundsException("srcOffset: " + srcOffset + ", length: " + length + ", array length: " + src.length);
+        }
+        while (length > 0) {
+            int chunkOffset = (int) dstOffset & chunkMask;
+            int count = Math.min(length, chunkMask + 1 - chunkOffset);
+            System.arraycopy(src, srcOffset, chunks[(int) (dstOffset >>> chunkShift)], chunkOffset, count);
+            srcOffset += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Returns a new array of all the elements of this SegmentedCharArray.
+     *
+     * @return the elements.
+     * @throws IllegalStateException
+     *             if the size is larger than {@link FastArray#ARRAY_LENGTH_MAX}.
+     */
+    public char[] toArray() {
+        if (size > FastArray.ARRAY_LENGTH_MAX) {
+            throw new IllegalStateException("size too large for an array: " + size);
+        }
+        char[] array = new char[(int) size];
+        copyTo(0, array, 0, array.length);
+        return array;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SegmentedCharArray)) return false;
+
+        SegmentedCharArray that = (SegmentedCharArray) o;
+
+        long size = size();
+        if (size != that.size()) return false;
+
+        for (long i = 0; i < size; i ++) {
+            if (get(i) != that.get(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(size);
+        for (int i = 0; i < chunkCount && (long) i << chunkShift < size; i ++) {
+            char[] chunk = chunks[i];
+            int length = (int) Math.min(chunkMask + 1, size - ((long) i << chunkShift));
+            for (int j = 0; j < length; j ++) {
+                char e = chunk[j];
+                result = 31 * result + Character.hashCode(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "[]";
+        }
+        StringBuilder buffer = new StringBuilder();
+        buffer.append('[');
+        for (long i = 0; i < size; i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(chunks[(int) (i >>> chunkShift)][(int) i & chunkMask]);
+        }
+        buffer.append(']');
+        return buffer.toString();
+    }
+
+    /**
+     * Performs the action for each element in order, a chunk at a time, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each element.
+     * @throws ConcurrentModificationException
+     *             if this SegmentedCharArray is modified by the action.
+     */
+    public void forEachChar(CharSlot slot) {
+        Objects.requireNonNull(slot);
+        int expectedModCount = modCount;
+        long size = this.size;
+        for (int chunk = 0; (long) chunk << chunkShift < size && expectedModCount == modCount; chunk ++) {
+            char[] elements = chunks[chunk];
+            int length = (int) Math.min(chunkMask + 1, size - ((long) chunk << chunkShift));
+            for (int i = 0; i < length && expectedModCount == modCount; i ++) {
+                slot.acceptAsChar(elements[i]);
+            }
+        }
+        if (expectedModCount != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Iterator<Character> iterator() {
+        return new Iterator<Character>() {
+            private long index = 0;
+            private final int expectedModCount = modCount;
+            public boolean hasNext() {
+                return index < size;
+            }
+            public Character next() {
+                if (expectedModCount != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+}
@@ -16,6 +16,7 @@
  */
 package unrefined.util;
 
+import unrefined.util.concurrent.TimingWheel;
 import unrefined.util.event.Event;
 import unrefined.util.event.EventSlot;
 import unrefined.util.signal.Signal;
@@ -57,6 +58,10 @@ public class SharedTimer {
             timer.setTimeUnit(timeUnit);
             return this;
         }
+        public Builder timingWheel(TimingWheel timingWheel) {
+            timer.setTimingWheel(timingWheel);
+            return this;
+        }
         public Builder onPerform(SignalSlot<EventSlot<PerformEvent>> consumer) {
             consumer.accept(timer.onPerform());
             return this;
@@ -75,8 +80,10 @@ public class SharedTimer {
     private boolean repeat;
     private boolean coalesce;
     private TimeUnit timeUnit;
+    private TimingWheel timingWheel;
 
     private ScheduledFuture<?> scheduledFuture;
+    private WheelTask wheelTask;
 
     private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
         Thread thread = new Thread(runnable, "SharedTimer");
@@ -159,9 +166,29 @@ public class SharedTimer {
         this.timeUnit = timeUnit == null ? TimeUnit.MILLISECONDS : timeUnit;
     }
 
+    /**
+     * Returns the timing wheel this timer is scheduled on, or {@code null} if on the shared scheduled executor.
+     *
+     * @return the timing wheel
+     */
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * Sets the timing wheel to schedule this timer on, effective on next {@link #start()}.
+     * Timing wheels schedule and cancel in O(1), and fire on their {@link unrefined.util.signal.Dispatcher},
+     * which suits large amounts of short timers, see {@link TimingWheel#defaultInstance()}.
+     *
+     * @param timingWheel the timing wheel, or {@code null} to use the shared scheduled executor
+     */
+    public void setTimingWheel(TimingWheel timingWheel) {
+        this.timingWheel = timingWheel;
+    }
+
     public void start() {
-        if (isStarted()) scheduledFuture.cancel(false);
-        scheduledFuture = EXECUTOR.scheduleAtFixedRate(new Runnable() {
+        stop();
+        Runnable task = new Runnable() {
             private int queuedCounter = 0;
             @Override
             public void run() {
@@ -172,17 +199,66 @@ public class SharedTimer {
                     else stop();
                 }
             }
-        }, delay, period, timeUnit);
+        };
+        if (timingWheel == null) scheduledFuture = EXECUTOR.scheduleAtFixedRate(task, delay, period, timeUnit);
+        else {
+            if (repeat && period <= 0) throw new IllegalArgumentException("Non-positive period: " + period);
+            wheelTask = new WheelTask(timingWheel, task, timeUnit.toNanos(delay), timeUnit.toNanos(period), repeat);
+        }
     }
 
     public void stop() {
         if (scheduledFuture != null && scheduledFuture.cancel(false)) {
             scheduledFuture = null;
         }
+        if (wheelTask != null) {
+            wheelTask.cancel();
+            wheelTask = null;
+        }
     }
 
     public boolean isStarted() {
-        return scheduledFuture != null;
+        return scheduledFuture != null || wheelTask != null;
+    }
+
+    /**
+     * Reschedules itself on a timing wheel at a fixed rate.
+     */
+    private static final class WheelTask implements Runnable {
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long periodNanos;
+        private final boolean repeat;
+        private long nextNanos;
+        private volatile TimingWheel.Timeout timeout;
+        private volatile boolean cancelled = false;
+
+        public WheelTask(TimingWheel timingWheel, Runnable task, long delayNanos, long periodNanos, boolean repeat) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.periodNanos = periodNanos;
+            this.repeat = repeat;
+            nextNanos = System.nanoTime() + delayNanos;
+            timeout = timingWheel.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            task.run();
+            if (repeat && !cancelled) {
+                nextNanos += periodNanos;
+                timeout = timingWheel.schedule(this, nextNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (cancelled) timeout.cancel();
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            timeout.cancel();
+        }
+
     }
 
     public static final class PerformEvent extends Event<SharedTimer> {
@@ -16,7 +16,10 @@
 
 package unrefined.util;
 
+import unrefined.util.function.BooleanSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
 
 /**
  * SparseBooleanArrays map integers to booleans.
@@ -368,6 +371,47 @@ public class SparseBooleanArray implements Cloneable, Iterable<Boolean> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link BooleanCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public BooleanCursor cursor() {
+        return new BooleanCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public boolean value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachBoolean(BooleanSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsBoolean(values[i]);
+        }
+    }
+
     @Override
     public Iterator<Boolean> iterator() {
         return new Iterator<Boolean>() {
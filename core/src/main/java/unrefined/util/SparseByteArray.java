@@ -16,7 +16,12 @@
 
 package unrefined.util;
 
+import unrefined.util.function.ByteSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseByteArrays map integers to bytes.  Unlike a normal array of bytes,
@@ -365,6 +370,57 @@ public class SparseByteArray implements Cloneable, Iterable<Byte> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link ByteCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public ByteCursor cursor() {
+        return new ByteCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public byte value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachByte(ByteSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsByte(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them. The elements are widened to {@code int}s.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(FastArray.spliterator(values, 0, size), false);
+    }
+
     @Override
     public Iterator<Byte> iterator() {
         return new Iterator<Byte>() {
@@ -16,7 +16,12 @@
 
 package unrefined.util;
 
+import unrefined.util.function.CharSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseCharArrays map integers to characters.  Unlike a normal array of characters,
@@ -365,6 +370,57 @@ public class SparseCharArray implements Cloneable, Iterable<Character> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link CharCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public CharCursor cursor() {
+        return new CharCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public char value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachChar(CharSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsChar(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them. The elements are widened to {@code int}s.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(FastArray.spliterator(values, 0, size), false);
+    }
+
     @Override
     public Iterator<Character> iterator() {
         return new Iterator<Character>() {
@@ -16,7 +16,13 @@
 
 package unrefined.util;
 
+import unrefined.util.function.DoubleSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseDoubleArrays map integers to doubles.  Unlike a normal array of doubles,
@@ -367,6 +373,68 @@ public class SparseDoubleArray implements Cloneable, Iterable<Double> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link DoubleCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public DoubleCursor cursor() {
+        return new DoubleCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public double value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachDouble(DoubleSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsDouble(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the values, in ascending order of their keys, which doesn't box them.
+     * The spliterator is bound to the mappings at the time of the call, and splits in halves.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return FastArray.spliterator(values, 0, size);
+    }
+
     @Override
     public Iterator<Double> iterator() {
         return new Iterator<Double>() {
@@ -16,7 +16,12 @@
 
 package unrefined.util;
 
+import unrefined.util.function.FloatSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseFloatArrays map integers to floats.  Unlike a normal array of floats,
@@ -365,6 +370,57 @@ public class SparseFloatArray implements Cloneable, Iterable<Float> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link FloatCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public FloatCursor cursor() {
+        return new FloatCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public float value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachFloat(FloatSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsFloat(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them. The elements are widened to {@code double}s.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public DoubleStream stream() {
+        return StreamSupport.doubleStream(FastArray.spliterator(values, 0, size), false);
+    }
+
     @Override
     public Iterator<Float> iterator() {
         return new Iterator<Float>() {
@@ -16,7 +16,13 @@
 
 package unrefined.util;
 
+import unrefined.util.function.IntSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseIntArrays map integers to integers.  Unlike a normal array of integers,
@@ -365,6 +371,68 @@ public class SparseIntArray implements Cloneable, Iterable<Integer> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link IntCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public IntCursor cursor() {
+        return new IntCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public int value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachInt(IntSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsInt(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public IntStream stream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the values, in ascending order of their keys, which doesn't box them.
+     * The spliterator is bound to the mappings at the time of the call, and splits in halves.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return FastArray.spliterator(values, 0, size);
+    }
+
     @Override
     public Iterator<Integer> iterator() {
         return new Iterator<Integer>() {
@@ -16,7 +16,13 @@
 
 package unrefined.util;
 
+import unrefined.util.function.LongSlot;
+
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * SparseLongArrays map integers to longs.  Unlike a normal array of longs,
@@ -367,6 +373,68 @@ public class SparseLongArray implements Cloneable, Iterable<Long> {
         return buffer.toString();
     }
 
+    /**
+     * Returns a cursor over the values in ascending order of their keys, which doesn't box them.
+     * {@link LongCursor#index()} returns the keys.
+     *
+     * @return the cursor
+     */
+    public LongCursor cursor() {
+        return new LongCursor() {
+            private int index = -1;
+            @Override
+            public boolean next() {
+                if (index + 1 >= size) {
+                    return false;
+                }
+                index ++;
+                return true;
+            }
+            @Override
+            public int index() {
+                return keys[index];
+            }
+            @Override
+            public long value() {
+                return values[index];
+            }
+        };
+    }
+
+    /**
+     * Performs the action for each value in ascending order of their keys, without boxing.
+     *
+     * @param slot
+     *            the action to be performed for each value.
+     */
+    public void forEachLong(LongSlot slot) {
+        Objects.requireNonNull(slot);
+        for (int i = 0; i < size; i++) {
+            slot.acceptAsLong(values[i]);
+        }
+    }
+
+    /**
+     * Returns a sequential stream of the values, in ascending order of their keys, which doesn't box them.
+     * The stream is bound to the mappings at the time of the call, and splits evenly when made parallel.
+     *
+     * @return the stream
+     */
+    public LongStream stream() {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Returns a spliterator over the values, in ascending order of their keys, which doesn't box them.
+     * The spliterator is bound to the mappings at the time of the call, and splits in halves.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator.OfLong spliterator() {
+        return FastArray.spliterator(values, 0, size);
+    }
+
     @Override
     public Iterator<Long> iterator() {
         return new Iterator<Long>() {
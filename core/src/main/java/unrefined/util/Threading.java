@@ -2,12 +2,17 @@ package unrefined.util;
 
 import unrefined.context.Environment;
 import unrefined.util.concurrent.Producer;
+import unrefined.util.concurrent.TaskScope;
 import unrefined.util.concurrent.worker.Worker;
+import unrefined.util.concurrent.worker.WorkerPool;
 import unrefined.util.signal.Dispatcher;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Threading {
 
@@ -199,11 +204,70 @@ public abstract class Threading {
         return Dispatcher.defaultInstance().isDispatchThread();
     }
 
-    public abstract Worker createWorker(String name, Class<?> clazz);
+    /**
+     * Creates a new worker, running on a dedicated platform thread or a virtual thread.
+     * Virtual workers are much lighter, suitable for one worker per connection or session.
+     *
+     * @param name the name of the worker, or {@code null} to generate one
+     * @param clazz the class declaring {@code public static void main(Worker)}
+     * @param virtual whether to run on a virtual thread
+     * @return the worker
+     * @throws UnsupportedOperationException if virtual and {@link #isVirtualThreadSupported()} is false
+     */
+    public abstract Worker createWorker(String name, Class<?> clazz, boolean virtual);
+    public Worker createWorker(String name, Class<?> clazz) {
+        return createWorker(name, clazz, false);
+    }
     public Worker createWorker(Class<?> clazz) {
         return createWorker(null, clazz);
     }
 
+    public abstract WorkerPool createWorkerPool(String name, Class<?> clazz, int size, int capacity, int overflow);
+    public WorkerPool createWorkerPool(String name, Class<?> clazz, int size) {
+        return createWorkerPool(name, clazz, size, WorkerPool.UNBOUNDED, WorkerPool.Overflow.BLOCK);
+    }
+    public WorkerPool createWorkerPool(Class<?> clazz, int size) {
+        return createWorkerPool(null, clazz, size);
+    }
+
+    private volatile Executor taskScopeExecutor;
+    private final Object taskScopeExecutorLock = new Object();
+
+    /**
+     * Returns the default executor of {@link TaskScope}s: one new virtual thread per subtask
+     * if {@link #isVirtualThreadSupported()}, or a shared pool of daemon platform threads otherwise.
+     *
+     * @return the default task scope executor
+     */
+    public Executor getTaskScopeExecutor() {
+        if (taskScopeExecutor == null) synchronized (taskScopeExecutorLock) {
+            if (taskScopeExecutor == null) {
+                if (isVirtualThreadSupported()) {
+                    taskScopeExecutor = runnable -> createVirtualThread(runnable, "TaskScope").start();
+                }
+                else {
+                    AtomicInteger nextSerialNumber = new AtomicInteger(0);
+                    taskScopeExecutor = Executors.newCachedThreadPool(runnable ->
+                            createPlatformThread(runnable, "TaskScope-" + nextSerialNumber.getAndIncrement(), true));
+                }
+            }
+        }
+        return taskScopeExecutor;
+    }
+
+    /**
+     * Opens a new {@link TaskScope} on the default executor, see {@link #getTaskScopeExecutor()}.
+     *
+     * @return the task scope
+     */
+    public <T> TaskScope<T> openTaskScope() {
+        return TaskScope.open(getTaskScopeExecutor());
+    }
+
+    public <T> TaskScope<T> openTaskScope(Executor executor) {
+        return TaskScope.open(executor);
+    }
+
     public <T> ThreadLocal<T> createThreadLocal() {
         return new ThreadLocal<>();
     }
@@ -0,0 +1,530 @@
+package unrefined.util.concurrent;
+
+import unrefined.util.FastArray;
+import unrefined.util.function.BooleanSlot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded lock-free ring buffer of booleans, for handing them between threads without locks.
+ * <ul>
+ *     <li>{@link #spsc(int)}: single producer, single consumer. Wait-free, each side owns one counter,
+ *     and rereads the other side's counter only when its cached copy says full or empty.</li>
+ *     <li>{@link #mpsc(int)}: multiple producers, single consumer.</li>
+ *     <li>{@link #mpmc(int)}: multiple producers, multiple consumers.</li>
+ * </ul>
+ * The multi-threaded sides claim slots by CAS on their counter, and every slot carries a sequence number
+ * which tells whether it's free or published for the current lap (Dmitry Vyukov's bounded queue).
+ * The head and tail counters are padded against false sharing.
+ * <p>
+ * Offering to a full buffer and polling an empty one fail immediately instead of blocking.
+ * The batch {@link #drain} and {@link #fill} operations claim a whole batch with a single counter update.
+ * Since the batch is claimed up front, the slots and producers passed to them must not throw on a multi-threaded side.
+ *
+ */
+public abstract class BooleanRingBuffer {
+
+    /**
+     * Creates a single-producer/single-consumer ring buffer.
+     *
+     * @param capacity the capacity, rounded up to a power of 2
+     * @return the ring buffer
+     */
+    public static BooleanRingBuffer spsc(int capacity) {
+        return new Spsc(capacity);
+    }
+
+    /**
+     * Creates a multi-producer/single-consumer ring buffer.
+     *
+     * @param capacity the capacity, rounded up to a power of 2 of at least 2
+     * @return the ring buffer
+     */
+    public static BooleanRingBuffer mpsc(int capacity) {
+        return new Mpsc(capacity);
+    }
+
+    /**
+     * Creates a multi-producer/multi-consumer ring buffer.
+     *
+     * @param capacity the capacity, rounded up to a power of 2 of at least 2
+     * @return the ring buffer
+     */
+    public static BooleanRingBuffer mpmc(int capacity) {
+        return new Mpmc(capacity);
+    }
+
+    final boolean[] buffer;
+    final int mask;
+
+    /*
+     * The producer caches the last seen head in the cache of tail, and the consumer the last seen tail in the cache of head.
+     */
+    final Sequence head = Sequence.of(0);
+    final Sequence tail = Sequence.of(0);
+
+    BooleanRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) throw new IllegalArgumentException("capacity out of range [1, 1073741824]: " + capacity);
+        capacity = 1 << (32 - Integer.numberOfLeadingZeros(capacity - 1));
+        buffer = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the count of elements, which is only a snapshot while other threads are offering or polling.
+     *
+     * @return the size
+     */
+    public int size() {
+        // Head first, so that the tail read is never older
+        long head = this.head.get();
+        long tail = this.tail.get();
+        return (int) Math.max(0, Math.min(buffer.length, tail - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Inserts the element at the tail if not full.
+     *
+     * @param e the element
+     * @return whether inserted
+     */
+    public abstract boolean offer(boolean e);
+
+    /**
+     * Removes the element at the head if not empty.
+     *
+     * @param emptyValue the value to return if empty
+     * @return the element, or {@code emptyValue} if empty
+     */
+    public abstract boolean poll(boolean emptyValue);
+
+    /**
+     * Removes all the available elements, and passes them to the slot in order.
+     *
+     * @param slot the slot
+     * @return the count of elements removed
+     */
+    public int drain(BooleanSlot slot) {
+        return drain(slot, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most {@code limit} of the available elements, and passes them to the slot in order.
+     *
+     * @param slot the slot
+     * @param limit the maximum count
+     * @return the count of elements removed
+     */
+    public abstract int drain(BooleanSlot slot, int limit);
+
+    /**
+     * Removes at most {@code length} of the available elements into the array.
+     *
+     * @param dst the destination array
+     * @param offset the offset in the array
+     * @param length the maximum count
+     * @return the count of elements removed
+     */
+    public abstract int drain(boolean[] dst, int offset, int length);
+
+    /**
+     * Inserts elements from the producer until full.
+     *
+     * @param producer the producer
+     * @return the count of elements inserted
+     */
+    public int fill(BooleanProducer producer) {
+        return fill(producer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Inserts at most {@code limit} elements from the producer, until full.
+     *
+     * @param producer the producer
+     * @param limit the maximum count
+     * @return the count of elements inserted
+     */
+    public abstract int fill(BooleanProducer producer, int limit);
+
+    /**
+     * Inserts at most {@code length} elements from the array, until full.
+     *
+     * @param src the source array
+     * @param offset the offset in the array
+     * @param length the maximum count
+     * @return the count of elements inserted
+     */
+    public abstract int fill(boolean[] src, int offset, int length);
+
+    final void copyOut(long sequence, boolean[] dst, int offset, int count) {
+        int index = (int) sequence & mask;
+        int first = Math.min(count, buffer.length - index);
+        System.arraycopy(buffer, index, dst, offset, first);
+        System.arraycopy(buffer, 0, dst, offset + first, count - first);
+    }
+
+    final void copyIn(boolean[] src, int offset, long sequence, int count) {
+        int index = (int) sequence & mask;
+        int first = Math.min(count, buffer.length - index);
+        System.arraycopy(src, offset, buffer, index, first);
+        System.arraycopy(src, offset + first, buffer, 0, count - first);
+    }
+
+    static void checkLimit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit < 0");
+    }
+
+    private static final class Spsc extends BooleanRingBuffer {
+
+        Spsc(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean offer(boolean e) {
+            long tail = this.tail.get();
+            if (tail - this.tail.getCache() >= buffer.length) {
+                this.tail.setCache(head.get());
+                if (tail - this.tail.getCache() >= buffer.length) return false;
+            }
+            buffer[(int) tail & mask] = e;
+            this.tail.set(tail + 1);
+            return true;
+        }
+
+        @Override
+        public boolean poll(boolean emptyValue) {
+            long head = this.head.get();
+            if (head >= this.head.getCache()) {
+                this.head.setCache(tail.get());
+                if (head >= this.head.getCache()) return emptyValue;
+            }
+            int index = (int) head & mask;
+            boolean e = buffer[index];
+            this.head.set(head + 1);
+            return e;
+        }
+
+        @Override
+        public int drain(BooleanSlot slot, int limit) {
+            checkLimit(limit);
+            long head = this.head.get();
+            long tail = this.tail.get();
+            this.head.setCache(tail);
+            int count = (int) Math.min(limit, tail - head);
+            int i = 0;
+            try {
+                while (i < count) {
+                    int index = (int) (head + i) & mask;
+                    boolean e = buffer[index];
+                    i ++;
+                    slot.acceptAsBoolean(e);
+                }
+            }
+            finally {
+                this.head.set(head + i);
+            }
+            return count;
+        }
+
+        @Override
+        public int drain(boolean[] dst, int offset, int length) {
+            FastArray.rangeCheck(dst.length, offset, offset + length);
+            long head = this.head.get();
+            long tail = this.tail.get();
+            this.head.setCache(tail);
+            int count = (int) Math.min(length, tail - head);
+            copyOut(head, dst, offset, count);
+            this.head.set(head + count);
+            return count;
+        }
+
+        @Override
+        public int fill(BooleanProducer producer, int limit) {
+            checkLimit(limit);
+            long tail = this.tail.get();
+            long head = this.head.get();
+            this.tail.setCache(head);
+            int count = (int) Math.min(limit, buffer.length - (tail - head));
+            int i = 0;
+            try {
+                for (; i < count; i ++) {
+                    buffer[(int) (tail + i) & mask] = producer.getAsBoolean();
+                }
+            }
+            finally {
+                this.tail.set(tail + i);
+            }
+            return count;
+        }
+
+        @Override
+        public int fill(boolean[] src, int offset, int length) {
+            FastArray.rangeCheck(src.length, offset, offset + length);
+            long tail = this.tail.get();
+            long head = this.head.get();
+            this.tail.setCache(head);
+            int count = (int) Math.min(length, buffer.length - (tail - head));
+            copyIn(src, offset, tail, count);
+            this.tail.set(tail + count);
+            return count;
+        }
+
+    }
+
+    /**
+     * The producer side shared by {@link Mpsc} and {@link Mpmc}.
+     */
+    private static abstract class MultiProducer extends BooleanRingBuffer {
+
+        /**
+         * The sequence per slot: equal to the sequence which may be offered next when free,
+         * and one past the sequence which may be polled next when published.
+         */
+        final AtomicLongArray sequences;
+
+        MultiProducer(int capacity) {
+            // With a single slot, "published in this lap" and "free in the next lap" are the same sequence
+            super(capacity == 1 ? 2 : capacity);
+            sequences = new AtomicLongArray(buffer.length);
+            for (int i = 0; i < buffer.length; i ++) {
+                sequences.lazySet(i, i);
+            }
+        }
+
+        @Override
+        public boolean offer(boolean e) {
+            while (true) {
+                long tail = this.tail.get();
+                int index = (int) tail & mask;
+                long difference = sequences.get(index) - tail;
+                if (difference == 0) {
+                    if (this.tail.compareAndSet(tail, tail + 1)) {
+                        buffer[index] = e;
+                        sequences.lazySet(index, tail + 1);
+                        return true;
+                    }
+                }
+                // Not released by the consumer of the previous lap yet
+                else if (difference < 0) return false;
+                // Otherwise claimed by another producer, retry
+            }
+        }
+
+
+        @Override
+        public int fill(BooleanProducer producer, int limit) {
+            checkLimit(limit);
+            limit = Math.min(limit, buffer.length);
+            if (limit == 0) return 0;
+            while (true) {
+                long tail = this.tail.get();
+                int count = countFree(tail, limit);
+                if (count == 0) {
+                    if (sequences.get((int) tail & mask) - tail < 0) return 0;
+                    continue;
+                }
+                if (!this.tail.compareAndSet(tail, tail + count)) continue;
+                for (int i = 0; i < count; i ++) {
+                    int index = (int) (tail + i) & mask;
+                    buffer[index] = producer.getAsBoolean();
+                    sequences.lazySet(index, tail + i + 1);
+                }
+                return count;
+            }
+        }
+
+        @Override
+        public int fill(boolean[] src, int offset, int length) {
+            FastArray.rangeCheck(src.length, offset, offset + length);
+            int limit = Math.min(length, buffer.length);
+            if (limit == 0) return 0;
+            while (true) {
+                long tail = this.tail.get();
+                int count = countFree(tail, limit);
+                if (count == 0) {
+                    if (sequences.get((int) tail & mask) - tail < 0) return 0;
+                    continue;
+                }
+                if (!this.tail.compareAndSet(tail, tail + count)) continue;
+                copyIn(src, offset, tail, count);
+                for (int i = 0; i < count; i ++) {
+                    sequences.lazySet((int) (tail + i) & mask, tail + i + 1);
+                }
+                return count;
+            }
+        }
+
+        /**
+         * Counts the consecutive free slots from {@code tail}, at most {@code limit}.
+         */
+        private int countFree(long tail, int limit) {
+            int count = 0;
+            while (count < limit && sequences.get((int) (tail + count) & mask) == tail + count) {
+                count ++;
+            }
+            return count;
+        }
+
+        /**
+         * Counts the consecutive published slots from {@code head}, at most {@code limit}.
+         */
+        final int countPublished(long head, int limit) {
+            int count = 0;
+            while (count < limit && sequences.get((int) (head + count) & mask) == head + count + 1) {
+                count ++;
+            }
+            return count;
+        }
+
+        /**
+         * Releases the slots of the polled sequences for the producers of the next lap.
+         */
+        final void release(long head, int count) {
+            for (int i = 0; i < count; i ++) {
+                sequences.lazySet((int) (head + i) & mask, head + i + buffer.length);
+            }
+        }
+
+    }
+
+    private static final class Mpsc extends MultiProducer {
+
+        Mpsc(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean poll(boolean emptyValue) {
+            long head = this.head.get();
+            int index = (int) head & mask;
+            // Empty, or claimed but not published yet
+            if (sequences.get(index) != head + 1) return emptyValue;
+            boolean e = buffer[index];
+            sequences.lazySet(index, head + buffer.length);
+            this.head.set(head + 1);
+            return e;
+        }
+
+        @Override
+        public int drain(BooleanSlot slot, int limit) {
+            checkLimit(limit);
+            long head = this.head.get();
+            int count = countPublished(head, Math.min(limit, buffer.length));
+            int i = 0;
+            try {
+                while (i < count) {
+                    int index = (int) (head + i) & mask;
+                    boolean e = buffer[index];
+                    sequences.lazySet(index, head + i + buffer.length);
+                    i ++;
+                    slot.acceptAsBoolean(e);
+                }
+            }
+            finally {
+                this.head.set(head + i);
+            }
+            return count;
+        }
+
+        @Override
+        public int drain(boolean[] dst, int offset, int length) {
+            FastArray.rangeCheck(dst.length, offset, offset + length);
+            long head = this.head.get();
+            int count = countPublished(head, Math.min(length, buffer.length));
+            copyOut(head, dst, offset, count);
+            release(head, count);
+            this.head.set(head + count);
+            return count;
+        }
+
+    }
+
+    private static final class Mpmc extends MultiProducer {
+
+        Mpmc(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public boolean poll(boolean emptyValue) {
+            while (true) {
+                long head = this.head.get();
+                int index = (int) head & mask;
+                long difference = sequences.get(index) - (head + 1);
+                if (difference == 0) {
+                    if (this.head.compareAndSet(head, head + 1)) {
+                        boolean e = buffer[index];
+                        sequences.lazySet(index, head + buffer.length);
+                        return e;
+                    }
+                }
+                // Empty, or claimed but not published yet
+                else if (difference < 0) return emptyValue;
+                // Otherwise polled by another consumer, retry
+            }
+        }
+
+
+        @Override
+        public int drain(BooleanSlot slot, int limit) {
+            checkLimit(limit);
+            limit = Math.min(limit, buffer.length);
+            if (limit == 0) return 0;
+            while (true) {
+                long head = this.head.get();
+                int count = countPublished(head, limit);
+                if (count == 0) {
+                    if (sequences.get((int) head & mask) - (head + 1) < 0) return 0;
+                    continue;
+                }
+                if (!this.head.compareAndSet(head, head + count)) continue;
+                for (int i = 0; i < count; i ++) {
+                    int index = (int) (head + i) & mask;
+                    boolean e = buffer[index];
+                    sequences.lazySet(index, head + i + buffer.length);
+                    slot.acceptAsBoolean(e);
+                }
+                return count;
+            }
+        }
+
+        @Override
+        public int drain(boolean[] dst, int offset, int length) {
+            FastArray.rangeCheck(dst.length, offset, offset + length);
+            int limit = Math.min(length, buffer.length);
+            if (limit == 0) return 0;
+            while (true) {
+                long head = this.head.get();
+                int count = countPublished(head, limit);
+                if (count == 0) {
+                    if (sequences.get((int) head & mask) - (head + 1) < 0) return 0;
+                    continue;
+                }
+                if (!this.head.compareAndSet(head, head + count)) continue;
+                copyOut(head, dst, offset, count);
+                release(head, count);
+                return count;
+            }
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "capacity=" + capacity() +
+                ", size=" + size() +
+                '}';
+    }
+
+}
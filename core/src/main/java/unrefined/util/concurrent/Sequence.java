@@ -0,0 +1,95 @@
+package unrefined.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A sequence counter padded against false sharing, for ring buffers and other lock-free queues.
+ * <p>
+ * The value is padded on both sides by a class hierarchy, since the JVM doesn't reorder fields across classes.
+ * Besides the value, it carries a plain {@link #getCache() cache}, owned by the thread which writes the value,
+ * e.g. the last seen value of the opposite counter.
+ */
+public abstract class Sequence {
+
+    /**
+     * Creates a new padded sequence counter.
+     *
+     * @param value the initial value
+     * @return the sequence counter
+     */
+    public static Sequence of(long value) {
+        return new Padded(value);
+    }
+
+    private Sequence() {
+    }
+
+    public abstract long get();
+
+    /**
+     * Sets the value with release semantics, which is enough for a counter owned by a single writer.
+     *
+     * @param value the new value
+     */
+    public abstract void set(long value);
+
+    public abstract boolean compareAndSet(long expect, long update);
+
+    public abstract long incrementAndGet();
+
+    public abstract long getCache();
+
+    public abstract void setCache(long cache);
+
+    private static abstract class LhsPadding extends Sequence {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static abstract class Value extends LhsPadding {
+        protected volatile long value;
+        protected long cache;
+    }
+
+    private static final class Padded extends Value {
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        private static final AtomicLongFieldUpdater<Value> UPDATER = AtomicLongFieldUpdater.newUpdater(Value.class, "value");
+
+        Padded(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public long get() {
+            return value;
+        }
+
+        @Override
+        public void set(long value) {
+            UPDATER.lazySet(this, value);
+        }
+
+        @Override
+        public boolean compareAndSet(long expect, long update) {
+            return UPDATER.compareAndSet(this, expect, update);
+        }
+
+        @Override
+        public long incrementAndGet() {
+            return UPDATER.incrementAndGet(this);
+        }
+
+        @Override
+        public long getCache() {
+            return cache;
+        }
+
+        @Override
+        public void setCache(long cache) {
+            this.cache = cache;
+        }
+
+    }
+
+}
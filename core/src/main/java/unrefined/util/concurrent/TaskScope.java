@@ -0,0 +1,410 @@
+package unrefined.util.concurrent;
+
+import unrefined.util.QuietCloseable;
+import unrefined.util.UnexpectedError;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A structured group of concurrent subtasks, forked by one owner thread and joined as a whole.
+ * <pre>{@code
+ * try (TaskScope<Asset> scope = Threading.getInstance().openTaskScope()) {
+ *     TaskScope.Subtask<Asset> image = scope.fork(() -> load("image.png"));
+ *     TaskScope.Subtask<Asset> sound = scope.fork(() -> load("sound.ogg"));
+ *     scope.joinAll(5, TimeUnit.SECONDS);
+ *     use(image.resultNow(), sound.resultNow());
+ * }
+ * }</pre>
+ * <ul>
+ *     <li>{@link #joinAll()} waits for every subtask, and fails as soon as any subtask fails.</li>
+ *     <li>{@link #joinAny()} returns the result of the first successful subtask.</li>
+ * </ul>
+ * Either way, once joined, failed, timed out or closed, the remaining subtasks are cancelled (interrupted).
+ * Scopes opened inside a subtask are children of its scope, and cancelled along with it.
+ *
+ * @param <T> the result type of subtasks
+ * @see unrefined.util.Threading#openTaskScope()
+ */
+public class TaskScope<T> implements QuietCloseable {
+
+    private static final ThreadLocal<TaskScope<?>> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final TaskScope<?> parent;
+    private final List<Subtask<T>> subtasks = new ArrayList<>();
+    private final List<TaskScope<?>> children = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition done = lock.newCondition();
+    private int remaining = 0;
+    private Subtask<T> winner = null;
+    private Throwable failure = null;
+    private volatile boolean cancelled = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Opens a new task scope, forking subtasks onto the given executor.
+     * If opened inside a subtask, becomes a child of its scope.
+     *
+     * @param executor the executor
+     * @return the task scope
+     */
+    public static <T> TaskScope<T> open(Executor executor) {
+        TaskScope<T> scope = new TaskScope<>(executor);
+        if (scope.parent != null) scope.parent.addChild(scope);
+        return scope;
+    }
+
+    private TaskScope(Executor executor) {
+        this.executor = Objects.requireNonNull(executor);
+        parent = CURRENT.get();
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the scope of the subtask this scope was created in, or {@code null}.
+     *
+     * @return the parent scope
+     */
+    public TaskScope<?> getParent() {
+        return parent;
+    }
+
+    /**
+     * Forks a subtask.
+     *
+     * @param task the task
+     * @return the subtask
+     * @throws IllegalStateException if this scope is cancelled or closed
+     * @throws RejectedExecutionException if the executor rejected the subtask
+     */
+    public Subtask<T> fork(Callable<? extends T> task) throws IllegalStateException, RejectedExecutionException {
+        Objects.requireNonNull(task);
+        Subtask<T> subtask = new Subtask<>(this, task);
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Task scope is closed");
+            if (cancelled) throw new IllegalStateException("Task scope is cancelled");
+            subtasks.add(subtask);
+            remaining ++;
+        }
+        finally {
+            lock.unlock();
+        }
+        try {
+            executor.execute(subtask);
+        }
+        catch (RejectedExecutionException e) {
+            subtask.cancel(false);
+            throw e;
+        }
+        return subtask;
+    }
+
+    /**
+     * Waits for all subtasks to complete, cancelling the rest as soon as one fails.
+     *
+     * @throws InterruptedException if interrupted while waiting, the subtasks are cancelled
+     * @throws ExecutionException if a subtask failed, with its exception as the cause
+     * @throws CancellationException if this scope was cancelled
+     */
+    public void joinAll() throws InterruptedException, ExecutionException, CancellationException {
+        try {
+            joinAll(-1);
+        }
+        catch (TimeoutException e) {
+            throw new UnexpectedError(e);
+        }
+    }
+
+    /**
+     * Waits for all subtasks to complete before the deadline, cancelling the rest as soon as one fails.
+     *
+     * @param timeout the maximum time to wait
+     * @param timeUnit the unit of the timeout
+     * @throws InterruptedException if interrupted while waiting, the subtasks are cancelled
+     * @throws ExecutionException if a subtask failed, with its exception as the cause
+     * @throws TimeoutException if the deadline passed, the subtasks are cancelled
+     * @throws CancellationException if this scope was cancelled
+     */
+    public void joinAll(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException, CancellationException {
+        joinAll(Math.max(0, timeUnit.toNanos(timeout)));
+    }
+
+    private void joinAll(long nanos) throws InterruptedException, ExecutionException, TimeoutException {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + nanos;
+            while (remaining > 0 && failure == null && !cancelled) {
+                await(nanos, deadline);
+            }
+            if (cancelled) throw new CancellationException("Task scope is cancelled");
+            if (failure != null) {
+                cancel();
+                throw new ExecutionException(failure);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits for the first successful subtask, and cancels the rest.
+     *
+     * @return the result of the first successful subtask
+     * @throws InterruptedException if interrupted while waiting, the subtasks are cancelled
+     * @throws ExecutionException if all subtasks failed, with the first exception as the cause
+     * @throws CancellationException if this scope was cancelled
+     * @throws IllegalStateException if no subtask forked
+     */
+    public T joinAny() throws InterruptedException, ExecutionException, CancellationException, IllegalStateException {
+        try {
+            return joinAny(-1);
+        }
+        catch (TimeoutException e) {
+            throw new UnexpectedError(e);
+        }
+    }
+
+    /**
+     * Waits for the first successful subtask before the deadline, and cancels the rest.
+     *
+     * @param timeout the maximum time to wait
+     * @param timeUnit the unit of the timeout
+     * @return the result of the first successful subtask
+     * @throws InterruptedException if interrupted while waiting, the subtasks are cancelled
+     * @throws ExecutionException if all subtasks failed, with the first exception as the cause
+     * @throws TimeoutException if the deadline passed, the subtasks are cancelled
+     * @throws CancellationException if this scope was cancelled
+     * @throws IllegalStateException if no subtask forked
+     */
+    public T joinAny(long timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException,
+            CancellationException, IllegalStateException {
+        return joinAny(Math.max(0, timeUnit.toNanos(timeout)));
+    }
+
+    private T joinAny(long nanos) throws InterruptedException, ExecutionException, TimeoutException {
+        Subtask<T> winner;
+        lock.lock();
+        try {
+            if (subtasks.isEmpty()) throw new IllegalStateException("No subtask forked");
+            long deadline = System.nanoTime() + nanos;
+            while (remaining > 0 && this.winner == null && !cancelled) {
+                await(nanos, deadline);
+            }
+            winner = this.winner;
+            if (winner == null) {
+                if (cancelled) throw new CancellationException("Task scope is cancelled");
+                else throw new ExecutionException(failure);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        cancel();
+        return winner.resultNow();
+    }
+
+    /**
+     * Waits on {@link #done} with the lock held, cancelling this scope on timeout or interruption.
+     */
+    private void await(long nanos, long deadline) throws InterruptedException, TimeoutException {
+        try {
+            if (nanos < 0) done.await();
+            else {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    cancel();
+                    throw new TimeoutException("Task scope deadline passed");
+                }
+                done.awaitNanos(left);
+            }
+        }
+        catch (InterruptedException e) {
+            cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels all subtasks which are not completed yet, interrupting the running ones, and the child scopes.
+     * No more subtasks can be forked afterwards.
+     */
+    public void cancel() {
+        List<Subtask<T>> subtasks;
+        List<TaskScope<?>> children;
+        lock.lock();
+        try {
+            if (cancelled) return;
+            cancelled = true;
+            subtasks = new ArrayList<>(this.subtasks);
+            children = new ArrayList<>(this.children);
+            done.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        for (TaskScope<?> child : children) {
+            child.cancel();
+        }
+        for (Subtask<T> subtask : subtasks) {
+            subtask.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Cancels the remaining subtasks and detaches from the parent scope.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        cancel();
+        if (parent != null) parent.removeChild(this);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void addChild(TaskScope<?> child) {
+        lock.lock();
+        try {
+            if (!cancelled) {
+                children.add(child);
+                return;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+        child.cancel();
+    }
+
+    private void removeChild(TaskScope<?> child) {
+        lock.lock();
+        try {
+            children.remove(child);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void completed(Subtask<T> subtask) {
+        lock.lock();
+        try {
+            remaining --;
+            if (!subtask.isCancelled()) {
+                Throwable exception = subtask.getException();
+                if (exception == null) {
+                    if (winner == null) winner = subtask;
+                }
+                else if (failure == null) failure = exception;
+                else if (failure != exception) failure.addSuppressed(exception);
+            }
+            done.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A forked subtask of a {@link TaskScope}.
+     *
+     * @param <V> the result type
+     */
+    public static final class Subtask<V> extends FutureTask<V> {
+
+        private final TaskScope<V> scope;
+
+        @SuppressWarnings("unchecked")
+        private Subtask(TaskScope<V> scope, Callable<? extends V> task) {
+            super((Callable<V>) task);
+            this.scope = scope;
+        }
+
+        public TaskScope<V> getScope() {
+            return scope;
+        }
+
+        @Override
+        public void run() {
+            TaskScope<?> previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                super.run();
+            }
+            finally {
+                CURRENT.set(previous);
+            }
+        }
+
+        @Override
+        protected void done() {
+            scope.completed(this);
+        }
+
+        /**
+         * Returns the result of this completed subtask, without waiting.
+         *
+         * @return the result
+         * @throws IllegalStateException if not completed successfully
+         */
+        public V resultNow() throws IllegalStateException {
+            if (!isDone()) throw new IllegalStateException("Subtask not completed");
+            if (isCancelled()) throw new IllegalStateException("Subtask cancelled");
+            try {
+                return super.get();
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Subtask failed", e.getCause());
+            }
+            catch (InterruptedException e) {
+                throw new UnexpectedError(e);
+            }
+        }
+
+        /**
+         * Returns the exception thrown by this completed subtask, or {@code null} if not failed.
+         *
+         * @return the exception
+         */
+        public Throwable getException() {
+            if (!isDone() || isCancelled()) return null;
+            try {
+                super.get();
+                return null;
+            }
+            catch (ExecutionException e) {
+                return e.getCause();
+            }
+            catch (InterruptedException | CancellationException e) {
+                return null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,382 @@
+package unrefined.util.concurrent;
+
+import unrefined.util.signal.Dispatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed hierarchical timing wheel, for large amounts of (typically short and often cancelled) timeouts.
+ * <p>
+ * Time advances in ticks of a fixed resolution. Each level of the wheel has the same count of buckets,
+ * and each bucket of a level spans all the buckets of the level below; timeouts are hashed into
+ * the bucket of the lowest level which covers their deadline, and cascaded down as time advances.
+ * Scheduling and cancelling are O(1) and lock-free: both only enqueue the timeout, and the single
+ * ticker thread links or unlinks it on its next tick. All timeouts of an expiring bucket are fired in a batch.
+ * <p>
+ * The deadlines are rounded up to the tick resolution. The tasks run on the configured {@link Dispatcher},
+ * so slow tasks don't delay the ticker, or on the ticker thread if no dispatcher is configured.
+ */
+public class TimingWheel {
+
+    private static volatile TimingWheel DEFAULT_INSTANCE;
+    private static final Object DEFAULT_INSTANCE_LOCK = new Object();
+
+    /**
+     * Returns the shared timing wheel, which ticks every millisecond and fires tasks on {@link Dispatcher#defaultInstance()}.
+     *
+     * @return the shared timing wheel
+     */
+    public static TimingWheel defaultInstance() {
+        if (DEFAULT_INSTANCE == null) synchronized (DEFAULT_INSTANCE_LOCK) {
+            if (DEFAULT_INSTANCE == null) DEFAULT_INSTANCE = new TimingWheel(1, TimeUnit.MILLISECONDS, 512, Dispatcher.defaultInstance());
+        }
+        return DEFAULT_INSTANCE;
+    }
+
+    /**
+     * This ID is used to generate thread names.
+     */
+    private static final AtomicInteger nextSerialNumber = new AtomicInteger(0);
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Bucket[][] wheels;
+    private final Dispatcher dispatcher;
+    private final String name;
+    private final long startNanos;
+
+    /**
+     * Started on the first schedule.
+     */
+    private volatile Thread ticker;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean idle = false;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Accessed by the ticker thread only.
+     */
+    private long currentTick = 0;
+
+    /**
+     * Creates a new timing wheel of 512 buckets per level, which fires tasks on the ticker thread.
+     *
+     * @param tickDuration the tick resolution
+     * @param timeUnit the unit of the tick resolution
+     */
+    public TimingWheel(long tickDuration, TimeUnit timeUnit) {
+        this(tickDuration, timeUnit, 512, null);
+    }
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param tickDuration the tick resolution
+     * @param timeUnit the unit of the tick resolution
+     * @param wheelSize the count of buckets per level, rounded up to a power of 2
+     * @param dispatcher the dispatcher to fire tasks on, {@code null} to fire on the ticker thread
+     */
+    public TimingWheel(long tickDuration, TimeUnit timeUnit, int wheelSize, Dispatcher dispatcher) {
+        if (tickDuration < 1) throw new IllegalArgumentException("tickDuration < 1");
+        if (wheelSize < 2 || wheelSize > (1 << 16)) throw new IllegalArgumentException("wheelSize out of range [2, 65536]: " + wheelSize);
+        tickNanos = timeUnit.toNanos(tickDuration);
+        bits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        mask = (1 << bits) - 1;
+        // Enough levels to cover every non-negative tick count
+        int levels = (63 + bits - 1) / bits;
+        wheels = new Bucket[levels][1 << bits];
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i ++) {
+                wheel[i] = new Bucket();
+            }
+        }
+        this.dispatcher = dispatcher;
+        name = "TimingWheel-" + nextSerialNumber.getAndIncrement();
+        startNanos = System.nanoTime();
+    }
+
+    private synchronized void startTicker() {
+        if (ticker == null && !shutdown) {
+            Thread ticker = new Thread(this::tick, name);
+            ticker.setDaemon(true);
+            ticker.start();
+            this.ticker = ticker;
+        }
+    }
+
+    public long getTickDuration(TimeUnit timeUnit) {
+        return timeUnit.convert(tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public int getWheelSize() {
+        return 1 << bits;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Returns the count of scheduled timeouts which are neither fired nor cancelled.
+     *
+     * @return the pending count
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Schedules a one-shot task.
+     *
+     * @param task the task
+     * @param delay the delay, rounded up to the tick resolution
+     * @param timeUnit the unit of the delay
+     * @return the timeout, to cancel the task
+     * @throws IllegalStateException if the timing wheel is shut down
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) throws IllegalStateException {
+        Objects.requireNonNull(task);
+        if (shutdown) throw new IllegalStateException("Timing wheel is shut down");
+        long elapsed = System.nanoTime() - startNanos + Math.max(0, timeUnit.toNanos(delay));
+        if (elapsed < 0) elapsed = Long.MAX_VALUE;
+        long deadline = elapsed / tickNanos + (elapsed % tickNanos == 0 ? 0 : 1);
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingCount.incrementAndGet();
+        scheduled.offer(timeout);
+        Thread ticker = this.ticker;
+        if (ticker == null) startTicker();
+        else if (idle) LockSupport.unpark(ticker);
+        return timeout;
+    }
+
+    /**
+     * Stops the ticker thread. The pending timeouts will never fire.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (ticker != null) LockSupport.unpark(ticker);
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    private void tick() {
+        List<Timeout> expired = new ArrayList<>();
+        while (!shutdown) {
+            if (pendingCount.get() == 0) {
+                // Nothing to fire, park until scheduled instead of ticking
+                unlinkCancelled();
+                idle = true;
+                if (pendingCount.get() == 0 && !shutdown) LockSupport.park(this);
+                idle = false;
+                long now = (System.nanoTime() - startNanos) / tickNanos;
+                // Buckets are all empty, so skipping ticks is safe
+                if (now > currentTick) currentTick = now;
+                continue;
+            }
+            long now = (System.nanoTime() - startNanos) / tickNanos;
+            unlinkCancelled();
+            linkScheduled(expired);
+            while (currentTick < now) {
+                currentTick ++;
+                cascade();
+                wheels[0][(int) currentTick & mask].expire(expired);
+            }
+            fire(expired);
+            long sleepNanos = startNanos + (currentTick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) LockSupport.parkNanos(this, sleepNanos);
+        }
+    }
+
+    private void cascade() {
+        for (int level = wheels.length - 1; level > 0; level --) {
+            int shift = level * bits;
+            if ((currentTick & ((1L << shift) - 1)) != 0) continue;
+            Bucket bucket = wheels[level][(int) (currentTick >>> shift) & mask];
+            Timeout timeout;
+            while ((timeout = bucket.poll()) != null) {
+                place(timeout, null);
+            }
+        }
+    }
+
+    private void linkScheduled(List<Timeout> expired) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state == Timeout.PENDING) place(timeout, expired);
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) timeout.bucket.remove(timeout);
+        }
+    }
+
+    private void place(Timeout timeout, List<Timeout> expired) {
+        long deadline = timeout.deadline;
+        if (deadline <= currentTick) {
+            if (expired != null) expired.add(timeout);
+            // Cascaded into the current tick, which expires right after
+            else wheels[0][(int) currentTick & mask].add(timeout);
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(deadline ^ currentTick)) / bits;
+        wheels[level][(int) (deadline >>> (level * bits)) & mask].add(timeout);
+    }
+
+    private void fire(List<Timeout> expired) {
+        for (Timeout timeout : expired) {
+            if (!Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) continue;
+            pendingCount.decrementAndGet();
+            if (dispatcher == null) run(timeout.task);
+            else dispatcher.invokeLater(timeout.task);
+        }
+        expired.clear();
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        }
+        catch (Throwable e) {
+            Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+            if (handler == null) e.printStackTrace();
+            else handler.uncaughtException(Thread.currentThread(), e);
+        }
+    }
+
+    /**
+     * A doubly linked list of timeouts, accessed by the ticker thread only.
+     */
+    private static final class Bucket {
+
+        private Timeout head, tail;
+
+        public void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) head = timeout;
+            else tail.next = timeout;
+            tail = timeout;
+        }
+
+        public void remove(Timeout timeout) {
+            if (timeout.prev == null) head = timeout.next;
+            else timeout.prev.next = timeout.next;
+            if (timeout.next == null) tail = timeout.prev;
+            else timeout.next.prev = timeout.prev;
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        public Timeout poll() {
+            Timeout timeout = head;
+            if (timeout != null) remove(timeout);
+            return timeout;
+        }
+
+        public void expire(List<Timeout> expired) {
+            Timeout timeout;
+            while ((timeout = poll()) != null) {
+                expired.add(timeout);
+            }
+        }
+
+    }
+
+    /**
+     * A handle of a scheduled task.
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+
+        /*
+         * Accessed by the ticker thread only.
+         */
+        private Bucket bucket;
+        private Timeout prev, next;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public Runnable getTask() {
+            return task;
+        }
+
+        public TimingWheel getTimingWheel() {
+            return timingWheel;
+        }
+
+        /**
+         * Cancels the task if not fired yet.
+         *
+         * @return whether cancelled by this call
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+            timingWheel.pendingCount.decrementAndGet();
+            timingWheel.cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName()
+                    + '{' +
+                    "task=" + task +
+                    ", state=" + (state == PENDING ? "pending" : state == CANCELLED ? "cancelled" : "expired") +
+                    '}';
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "name='" + name + '\'' +
+                ", tickNanos=" + tickNanos +
+                ", wheelSize=" + getWheelSize() +
+                ", pendingCount=" + getPendingCount() +
+                '}';
+    }
+
+}
@@ -0,0 +1,117 @@
+package unrefined.util.concurrent.worker;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An owning handle of a (typically large) object, such as a {@link unrefined.nio.Pointer} or a
+ * {@link java.nio.ByteBuffer}, whose ownership can be moved to a {@link Worker} without copying.
+ * <p>
+ * Like the transferable objects of web workers, {@link Worker#postTransfer(Transfer)} moves the object
+ * into a new handle delivered as the message, and detaches the sender's handle:
+ * any further {@link #get()} on it throws {@link IllegalStateException}.
+ * Since a Java reference itself can't be revoked, the sender should only access the object through its handle.
+ * <p>
+ * If the object is {@link AutoCloseable}, {@link #close()} closes it as long as the handle still owns it,
+ * so the receiver can free e.g. native memory once done.
+ *
+ * @param <T> the object type
+ */
+public final class Transfer<T> implements AutoCloseable {
+
+    public static <T> Transfer<T> of(T value) {
+        return new Transfer<>(Objects.requireNonNull(value));
+    }
+
+    private final AtomicReference<T> value;
+
+    private Transfer(T value) {
+        this.value = new AtomicReference<>(value);
+    }
+
+    /**
+     * Returns the owned object.
+     *
+     * @return the owned object
+     * @throws IllegalStateException if the ownership has been transferred or released
+     */
+    public T get() throws IllegalStateException {
+        T value = this.value.get();
+        if (value == null) throw new IllegalStateException("Ownership transferred");
+        return value;
+    }
+
+    /**
+     * Returns whether this handle no longer owns the object.
+     *
+     * @return whether detached
+     */
+    public boolean isDetached() {
+        return value.get() == null;
+    }
+
+    /**
+     * Moves the owned object to a new handle, detaching this one.
+     *
+     * @return the new owning handle
+     * @throws IllegalStateException if the ownership has been transferred or released
+     */
+    public Transfer<T> detach() throws IllegalStateException {
+        T value = this.value.getAndSet(null);
+        if (value == null) throw new IllegalStateException("Ownership transferred");
+        return new Transfer<>(value);
+    }
+
+    /**
+     * Gives up the ownership without closing the object.
+     *
+     * @return the previously owned object
+     * @throws IllegalStateException if the ownership has been transferred or released
+     */
+    public T release() throws IllegalStateException {
+        T value = this.value.getAndSet(null);
+        if (value == null) throw new IllegalStateException("Ownership transferred");
+        return value;
+    }
+
+    /**
+     * Moves the ownership back from a handle detached from this one, used when a transfer failed.
+     */
+    void restore(Transfer<T> detached) {
+        T value = detached.value.getAndSet(null);
+        if (value != null) this.value.set(value);
+    }
+
+    /**
+     * Closes the owned object if {@link AutoCloseable}, and detaches this handle.
+     * Does nothing if already detached.
+     *
+     * @throws IOException if failed to close the object, wrapping any checked exception other than {@link IOException}
+     */
+    @Override
+    public void close() throws IOException {
+        T value = this.value.getAndSet(null);
+        if (value instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) value).close();
+            }
+            catch (IOException | RuntimeException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "value=" + value.get() +
+                '}';
+    }
+
+}
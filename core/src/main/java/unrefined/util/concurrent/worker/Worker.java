@@ -16,6 +16,10 @@ public abstract class Worker {
         return Threading.getInstance().createWorker(name, clazz);
     }
 
+    public static Worker of(String name, Class<?> clazz, boolean virtual) {
+        return Threading.getInstance().createWorker(name, clazz, virtual);
+    }
+
     private final Class<?> clazz;
 
     public Worker(Class<?> clazz) {
@@ -27,10 +31,40 @@ public abstract class Worker {
     }
 
     public abstract void post(Object message) throws IllegalStateException;
+
+    /**
+     * Moves the ownership of the object held by the given handle to this worker, without copying.
+     * The worker receives a new {@link Transfer} as the message, and the given handle is detached.
+     * If posting fails, the given handle keeps the ownership.
+     *
+     * @param transfer the owning handle
+     * @throws IllegalStateException if the worker is terminated or rejects the message, or the handle is already detached
+     */
+    public <T> void postTransfer(Transfer<T> transfer) throws IllegalStateException {
+        Transfer<T> detached = transfer.detach();
+        boolean posted = false;
+        try {
+            post(detached);
+            posted = true;
+        }
+        finally {
+            if (!posted) transfer.restore(detached);
+        }
+    }
+
     public abstract String getName();
     public abstract void terminate();
     public abstract boolean isTerminated();
 
+    /**
+     * Returns whether this worker runs on a virtual thread.
+     *
+     * @return whether virtual
+     */
+    public boolean isVirtual() {
+        return false;
+    }
+
     private final Signal<Slot<Object>> onMessage = Signal.ofSlot();
 
     public Signal<Slot<Object>> onMessage() {
@@ -0,0 +1,288 @@
+package unrefined.util.concurrent.worker;
+
+import unrefined.util.NotInstantiableError;
+import unrefined.util.Threading;
+import unrefined.util.function.Slot;
+import unrefined.util.signal.Signal;
+
+import java.util.Objects;
+
+/**
+ * A fixed-size group of {@link Worker}s running the same {@code public static void main(Worker)} class.
+ * <p>
+ * Messages are routed either round-robin with {@link #post(Object)}, or by key with {@link #post(Object, Object)},
+ * in which case messages of equal keys always go to the same worker, in order.
+ * Idle workers steal round-robin messages from the mailboxes of busy workers; keyed messages
+ * (and messages posted to a single worker directly) are never stolen.
+ * <p>
+ * Mailboxes can be bounded, in which case a full mailbox either blocks or rejects the poster,
+ * see {@link Overflow}.
+ */
+public abstract class WorkerPool {
+
+    /**
+     * The constants of supported mailbox overflow policies.
+     */
+    public static final class Overflow {
+
+        private Overflow() {
+            throw new NotInstantiableError(Overflow.class);
+        }
+
+        /**
+         * (Default) The poster blocks until the mailbox has room.
+         */
+        public static final int BLOCK = 0;
+
+        /**
+         * The message is dropped, and the post method returns {@code false}.
+         */
+        public static final int REJECT = 1;
+
+        public static int checkPolicy(int policy) {
+            if (policy < BLOCK || policy > REJECT) throw new IllegalArgumentException("Illegal overflow policy: " + policy);
+            else return policy;
+        }
+
+    }
+
+    /**
+     * The mailbox capacity meaning no limit.
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    public static WorkerPool of(Class<?> clazz, int size) {
+        return Threading.getInstance().createWorkerPool(clazz, size);
+    }
+
+    public static WorkerPool of(String name, Class<?> clazz, int size) {
+        return Threading.getInstance().createWorkerPool(name, clazz, size);
+    }
+
+    public static WorkerPool of(String name, Class<?> clazz, int size, int capacity, int overflow) {
+        return Threading.getInstance().createWorkerPool(name, clazz, size, capacity, overflow);
+    }
+
+    private final Class<?> clazz;
+    private final int capacity;
+    private final int overflow;
+
+    public WorkerPool(Class<?> clazz, int capacity, int overflow) {
+        this.clazz = Objects.requireNonNull(clazz);
+        if (capacity < 1) throw new IllegalArgumentException("capacity < 1");
+        this.capacity = capacity;
+        this.overflow = Overflow.checkPolicy(overflow);
+    }
+
+    public Class<?> getWorkerClass() {
+        return clazz;
+    }
+
+    /**
+     * Returns the mailbox capacity of each worker, {@link #UNBOUNDED} if not limited.
+     *
+     * @return the mailbox capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the policy when a mailbox is full.
+     *
+     * @return one of {@link Overflow}
+     */
+    public int getOverflowPolicy() {
+        return overflow;
+    }
+
+    public abstract String getName();
+    public abstract int getSize();
+
+    /**
+     * Returns the worker at the given index. Posting to it directly skips routing,
+     * and such messages are never stolen. Terminating it terminates the whole pool.
+     *
+     * @param index the worker index
+     * @return the worker
+     */
+    public abstract Worker getWorker(int index);
+
+    /**
+     * Posts a message to the next worker in round-robin order, which may be stolen by an idle worker.
+     *
+     * @param message the message
+     * @return {@code false} if rejected by a full mailbox, or interrupted while blocking
+     * @throws IllegalStateException if the pool is terminated
+     */
+    public abstract boolean post(Object message) throws IllegalStateException;
+
+    /**
+     * Posts a message to the worker which the given key maps to.
+     * Messages of equal keys are processed by the same worker, in posting order.
+     *
+     * @param key the routing key
+     * @param message the message
+     * @return {@code false} if rejected by a full mailbox, or interrupted while blocking
+     * @throws IllegalStateException if the pool is terminated
+     */
+    public abstract boolean post(Object key, Object message) throws IllegalStateException;
+
+    /**
+     * Moves the ownership of the object held by the given handle to the next worker in round-robin order,
+     * see {@link Worker#postTransfer(Transfer)}. If rejected, the given handle keeps the ownership.
+     *
+     * @param transfer the owning handle
+     * @return {@code false} if rejected by a full mailbox, or interrupted while blocking
+     * @throws IllegalStateException if the pool is terminated, or the handle is already detached
+     */
+    public <T> boolean postTransfer(Transfer<T> transfer) throws IllegalStateException {
+        Transfer<T> detached = transfer.detach();
+        boolean posted = false;
+        try {
+            posted = post(detached);
+        }
+        finally {
+            if (!posted) transfer.restore(detached);
+        }
+        return posted;
+    }
+
+    /**
+     * Moves the ownership of the object held by the given handle to the worker which the given key maps to,
+     * see {@link Worker#postTransfer(Transfer)}. If rejected, the given handle keeps the ownership.
+     *
+     * @param key the routing key
+     * @param transfer the owning handle
+     * @return {@code false} if rejected by a full mailbox, or interrupted while blocking
+     * @throws IllegalStateException if the pool is terminated, or the handle is already detached
+     */
+    public <T> boolean postTransfer(Object key, Transfer<T> transfer) throws IllegalStateException {
+        Transfer<T> detached = transfer.detach();
+        boolean posted = false;
+        try {
+            posted = post(key, detached);
+        }
+        finally {
+            if (!posted) transfer.restore(detached);
+        }
+        return posted;
+    }
+
+    public abstract void terminate();
+    public abstract boolean isTerminated();
+
+    /**
+     * Returns a snapshot of the statistics of the worker at the given index.
+     *
+     * @param index the worker index
+     * @return the statistics
+     */
+    public abstract Statistics getStatistics(int index);
+
+    private final Signal<Slot<Throwable>> onException = Signal.ofSlot();
+
+    /**
+     * Emitted for exceptions thrown by any worker of this pool, in addition to {@link Worker#onException()}.
+     *
+     * @return the signal
+     */
+    public Signal<Slot<Throwable>> onException() {
+        return onException;
+    }
+
+    /**
+     * A snapshot of the statistics of a pooled worker.
+     */
+    public static final class Statistics {
+
+        private final int queueDepth;
+        private final long postedCount;
+        private final long processedCount;
+        private final long stolenCount;
+        private final long rejectedCount;
+        private final long uptimeNanos;
+
+        public Statistics(int queueDepth, long postedCount, long processedCount, long stolenCount, long rejectedCount, long uptimeNanos) {
+            this.queueDepth = queueDepth;
+            this.postedCount = postedCount;
+            this.processedCount = processedCount;
+            this.stolenCount = stolenCount;
+            this.rejectedCount = rejectedCount;
+            this.uptimeNanos = uptimeNanos;
+        }
+
+        /**
+         * Returns the count of messages waiting in the mailbox.
+         *
+         * @return the queue depth
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Returns the count of messages accepted by the mailbox.
+         *
+         * @return the posted count
+         */
+        public long getPostedCount() {
+            return postedCount;
+        }
+
+        /**
+         * Returns the count of messages processed by the worker, including stolen ones.
+         *
+         * @return the processed count
+         */
+        public long getProcessedCount() {
+            return processedCount;
+        }
+
+        /**
+         * Returns the count of messages the worker stole from other mailboxes.
+         *
+         * @return the stolen count
+         */
+        public long getStolenCount() {
+            return stolenCount;
+        }
+
+        /**
+         * Returns the count of messages rejected by the full mailbox.
+         *
+         * @return the rejected count
+         */
+        public long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        public long getUptimeNanos() {
+            return uptimeNanos;
+        }
+
+        /**
+         * Returns the average processed messages per second since the worker started.
+         *
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return uptimeNanos <= 0 ? 0 : processedCount * 1_000_000_000.0 / uptimeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName()
+                    + '{' +
+                    "queueDepth=" + queueDepth +
+                    ", postedCount=" + postedCount +
+                    ", processedCount=" + processedCount +
+                    ", stolenCount=" + stolenCount +
+                    ", rejectedCount=" + rejectedCount +
+                    ", throughput=" + getThroughput() +
+                    '}';
+        }
+
+    }
+
+}
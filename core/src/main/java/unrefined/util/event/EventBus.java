@@ -2,11 +2,14 @@ package unrefined.util.event;
 
 import unrefined.context.Environment;
 import unrefined.util.function.Slot;
+import unrefined.util.reflect.Reflection;
 import unrefined.util.signal.Connection;
 import unrefined.util.signal.Dispatcher;
 import unrefined.util.signal.Signal;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -43,26 +46,94 @@ public abstract class EventBus {
 
     public void register(Object subscriber, Dispatcher dispatcher, int type) {
         if (connectionMap.containsKey(subscriber)) return;
+        SubscriberIndex index = getSubscriberIndex(subscriber.getClass());
         connectionMap.put(subscriber, signal.connect(event -> {
-            for (Method method : subscriber.getClass().getDeclaredMethods()) {
-                if (method.isAnnotationPresent(Subscribe.class)) {
-                    if (method.getParameterTypes()[0].isInstance(event)) {
-                        try {
-                            dispatch(subscriber, method, event);
-                        }
-                        catch (Throwable e) {
-                            if (onException.isEmpty()) {
-                                e.printStackTrace();
-                                System.exit(1);
-                            }
-                            else onException.emit(e);
+            for (int i = 0; i < index.size(); i ++) {
+                if (index.getEventType(i).isInstance(event)) {
+                    try {
+                        if (index instanceof MethodIndex) dispatch(subscriber, ((MethodIndex) index).methods[i], event);
+                        else index.invoke(i, subscriber, event);
+                    }
+                    catch (Throwable e) {
+                        if (onException.isEmpty()) {
+                            e.printStackTrace();
+                            System.exit(1);
                         }
+                        else onException.emit(e);
                     }
                 }
             }
         }, dispatcher, type));
     }
 
+    private static final Map<Class<?>, SubscriberIndex> SUBSCRIBER_INDEX_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the {@link SubscriberIndex} of the given subscriber class.
+     * The compile-time generated index is used if present,
+     * otherwise the {@link Subscribe} methods are scanned reflectively.
+     * Either way, the result is cached per class.
+     *
+     * @param subscriberClass the subscriber class
+     * @return the index of the subscriber class
+     */
+    public static SubscriberIndex getSubscriberIndex(Class<?> subscriberClass) {
+        SubscriberIndex index = SUBSCRIBER_INDEX_CACHE.get(subscriberClass);
+        if (index == null) {
+            index = loadSubscriberIndex(subscriberClass);
+            SubscriberIndex previous = SUBSCRIBER_INDEX_CACHE.putIfAbsent(subscriberClass, index);
+            if (previous != null) index = previous;
+        }
+        return index;
+    }
+
+    private static SubscriberIndex loadSubscriberIndex(Class<?> subscriberClass) {
+        try {
+            Class<?> clazz = Class.forName(subscriberClass.getName() + SubscriberIndex.SUFFIX, true, subscriberClass.getClassLoader());
+            if (SubscriberIndex.class.isAssignableFrom(clazz)) {
+                SubscriberIndex index = (SubscriberIndex) clazz.getConstructor().newInstance();
+                if (index.getSubscriberClass() == subscriberClass) return index;
+            }
+        }
+        catch (ClassNotFoundException | LinkageError ignored) {
+        }
+        catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Failed to instantiate subscriber index of " + subscriberClass.getName(), e);
+        }
+        List<Method> methods = new ArrayList<>();
+        for (Method method : subscriberClass.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Subscribe.class) && method.getParameterTypes().length == 1) methods.add(method);
+        }
+        return new MethodIndex(subscriberClass, methods.toArray(new Method[0]));
+    }
+
+    /**
+     * The fallback {@link SubscriberIndex} scanned by reflection.
+     */
+    private static final class MethodIndex extends SubscriberIndex {
+
+        private final Method[] methods;
+
+        public MethodIndex(Class<?> subscriberClass, Method[] methods) {
+            super(subscriberClass, eventTypes(methods));
+            this.methods = methods;
+        }
+
+        private static Class<?>[] eventTypes(Method[] methods) {
+            Class<?>[] eventTypes = new Class<?>[methods.length];
+            for (int i = 0; i < methods.length; i ++) {
+                eventTypes[i] = methods[i].getParameterTypes()[0];
+            }
+            return eventTypes;
+        }
+
+        @Override
+        public void invoke(int index, Object subscriber, Event<?> event) throws Throwable {
+            Reflection.getInstance().invokeMethod(subscriber, methods[index], event);
+        }
+
+    }
+
     public void unregister() {
         connectionMap.clear();
         signal.disconnect();
@@ -86,7 +157,7 @@ public abstract class EventBus {
     }
 
     public void post(Event<?> event) {
-        signal.emit(event);
+        signal.emit1(event);
     }
 
     public Signal<Slot<Throwable>> onException() {
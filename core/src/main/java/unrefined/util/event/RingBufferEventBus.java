@@ -0,0 +1,375 @@
+package unrefined.util.event;
+
+import unrefined.util.concurrent.Producer;
+import unrefined.util.concurrent.Sequence;
+import unrefined.util.function.Slot;
+import unrefined.util.signal.Signal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A Disruptor-style event bus backed by a ring buffer of preallocated events.
+ * <p>
+ * Unlike {@link EventBus}, the events are created once by a factory and recycled:
+ * publishers claim a slot by sequence number with {@link #next()}, fill the event in place
+ * and {@link #publish(long)} it, or simply call {@link #post(Slot)}.
+ * Every registered subscriber consumes all the events in order on its own dedicated thread,
+ * and publishers wait for the slowest subscriber before wrapping around the buffer.
+ * So no allocation nor queue node is involved per event.
+ * <p>
+ * Subscribers are registered before {@link #start()}, and dispatched the same way as {@link EventBus},
+ * i.e. through the {@link SubscriberIndex} of their classes. Since events are recycled,
+ * subscribers must not retain them after returning.
+ *
+ * @param <E> the event type
+ */
+public class RingBufferEventBus<E extends Event<?>> {
+
+    /**
+     * Decides how a thread waits for a sequence, both for subscribers waiting for published events
+     * and publishers waiting for free slots.
+     */
+    @FunctionalInterface
+    public interface WaitStrategy {
+
+        /**
+         * Waits once. Called repeatedly until the awaited sequence is available.
+         *
+         * @param counter the count of previous calls while waiting for the current sequence
+         */
+        void idle(int counter);
+
+    }
+
+    /**
+     * Spins on the sequence. The lowest latency, but burns a whole core per waiting thread.
+     */
+    public static final WaitStrategy BUSY_SPIN = counter -> {};
+
+    /**
+     * Spins for a while, then yields the thread.
+     */
+    public static final WaitStrategy YIELDING = counter -> {
+        if (counter > 100) Thread.yield();
+    };
+
+    /**
+     * Spins, yields, then parks the thread for 100 microseconds at a time.
+     */
+    public static final WaitStrategy PARKING = parking(100_000);
+
+    /**
+     * Spins, yields, then parks the thread for the given nanoseconds at a time.
+     *
+     * @param parkNanos the nanoseconds to park
+     * @return the wait strategy
+     */
+    public static WaitStrategy parking(long parkNanos) {
+        if (parkNanos < 1) throw new IllegalArgumentException("parkNanos < 1");
+        return counter -> {
+            if (counter > 200) LockSupport.parkNanos(parkNanos);
+            else if (counter > 100) Thread.yield();
+        };
+    }
+
+    private static final AtomicInteger nextSerialNumber = new AtomicInteger(0);
+
+    private final String name = "RingBufferEventBus-" + nextSerialNumber.getAndIncrement();
+
+    private final Object[] entries;
+    private final int mask;
+    private final int shift;
+    private final WaitStrategy waitStrategy;
+
+    /**
+     * The lap number of the latest published sequence per slot.
+     */
+    private final AtomicIntegerArray published;
+
+    /**
+     * The latest claimed sequence.
+     */
+    private final Sequence claimed = Sequence.of(-1);
+
+    /**
+     * The cached minimum subscriber sequence, to skip the gating scan when far from wrapping.
+     */
+    private final Sequence gatingCache = Sequence.of(-1);
+
+    private final List<Subscriber> subscriberList = new ArrayList<>();
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean running = false;
+
+    private final Signal<Slot<Throwable>> onException = Signal.ofSlot();
+
+    /**
+     * Creates a new ring buffer event bus with {@link #PARKING} wait strategy.
+     *
+     * @param bufferSize the count of preallocated events, must be a power of 2
+     * @param eventFactory creates the preallocated events
+     */
+    public RingBufferEventBus(int bufferSize, Producer<? extends E> eventFactory) {
+        this(bufferSize, eventFactory, PARKING);
+    }
+
+    /**
+     * Creates a new ring buffer event bus.
+     *
+     * @param bufferSize the count of preallocated events, must be a power of 2
+     * @param eventFactory creates the preallocated events
+     * @param waitStrategy the wait strategy of subscribers and publishers
+     */
+    public RingBufferEventBus(int bufferSize, Producer<? extends E> eventFactory, WaitStrategy waitStrategy) {
+        if (bufferSize < 1) throw new IllegalArgumentException("bufferSize < 1");
+        if (Integer.bitCount(bufferSize) != 1) throw new IllegalArgumentException("bufferSize must be a power of 2");
+        Objects.requireNonNull(eventFactory);
+        this.waitStrategy = Objects.requireNonNull(waitStrategy);
+        entries = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i ++) {
+            entries[i] = Objects.requireNonNull(eventFactory.get());
+        }
+        mask = bufferSize - 1;
+        shift = Integer.numberOfTrailingZeros(bufferSize);
+        published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i ++) {
+            published.set(i, -1);
+        }
+    }
+
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Registers a subscriber, which consumes every published event on its own thread.
+     *
+     * @param subscriber the subscriber with {@link Subscribe} methods
+     * @throws IllegalStateException if the bus has been started
+     */
+    public void register(Object subscriber) throws IllegalStateException {
+        Objects.requireNonNull(subscriber);
+        SubscriberIndex index = EventBus.getSubscriberIndex(subscriber.getClass());
+        synchronized (subscriberList) {
+            if (started.get()) throw new IllegalStateException("Event bus already started");
+            subscriberList.add(new Subscriber(subscriber, index, null));
+        }
+    }
+
+    /**
+     * Registers a slot, which consumes every published event on its own thread.
+     *
+     * @param slot the slot
+     * @throws IllegalStateException if the bus has been started
+     */
+    public void register(EventSlot<? super E> slot) throws IllegalStateException {
+        Objects.requireNonNull(slot);
+        synchronized (subscriberList) {
+            if (started.get()) throw new IllegalStateException("Event bus already started");
+            subscriberList.add(new Subscriber(slot, null, slot));
+        }
+    }
+
+    /**
+     * Starts the threads of the registered subscribers.
+     *
+     * @throws IllegalStateException if the bus has been started
+     */
+    public void start() throws IllegalStateException {
+        synchronized (subscriberList) {
+            if (!started.compareAndSet(false, true)) throw new IllegalStateException("Event bus already started");
+            running = true;
+            subscribers = subscriberList.toArray(new Subscriber[0]);
+            for (int i = 0; i < subscribers.length; i ++) {
+                Subscriber subscriber = subscribers[i];
+                Thread thread = new Thread(() -> consume(subscriber), name + "-" + i);
+                thread.setDaemon(true);
+                subscriber.thread = thread;
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Waits until the registered subscribers have consumed every published event, then stops their threads.
+     * Must not be called concurrently with publishing.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void shutdown() throws InterruptedException {
+        long cursor = claimed.get();
+        int counter = 0;
+        while (running && minimumSequence(cursor) < cursor) {
+            waitStrategy.idle(counter ++);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+        halt();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.thread != Thread.currentThread()) subscriber.thread.join();
+        }
+    }
+
+    /**
+     * Stops the threads of the registered subscribers, without waiting for pending events.
+     */
+    public void halt() {
+        running = false;
+        for (Subscriber subscriber : subscribers) {
+            LockSupport.unpark(subscriber.thread);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Claims the next slot, waiting for the slowest subscriber if the buffer is full.
+     *
+     * @return the sequence of the claimed slot
+     * @throws IllegalStateException if the bus is not running
+     */
+    public long next() throws IllegalStateException {
+        if (!running) throw new IllegalStateException("Event bus not running");
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > gatingCache.get()) {
+            int counter = 0;
+            long minimum;
+            while (wrapPoint > (minimum = minimumSequence(sequence))) {
+                if (!running) throw new IllegalStateException("Event bus not running");
+                waitStrategy.idle(counter ++);
+            }
+            gatingCache.set(minimum);
+        }
+        return sequence;
+    }
+
+    /**
+     * Returns the preallocated event of the given claimed sequence, to fill it before publishing.
+     *
+     * @param sequence the claimed sequence
+     * @return the event
+     */
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    /**
+     * Makes the event of the given claimed sequence visible to subscribers.
+     *
+     * @param sequence the claimed sequence
+     */
+    public void publish(long sequence) {
+        published.lazySet((int) sequence & mask, (int) (sequence >>> shift));
+    }
+
+    /**
+     * Claims the next slot, fills its event with the given translator, and publishes it.
+     *
+     * @param translator fills the recycled event
+     */
+    public void post(Slot<? super E> translator) {
+        long sequence = next();
+        try {
+            translator.accept(get(sequence));
+        }
+        finally {
+            publish(sequence);
+        }
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == (int) (sequence >>> shift);
+    }
+
+    private long highestPublished(long low, long high) {
+        for (long sequence = low; sequence <= high; sequence ++) {
+            if (!isPublished(sequence)) return sequence - 1;
+        }
+        return high;
+    }
+
+    private long minimumSequence(long minimum) {
+        for (Subscriber subscriber : subscribers) {
+            minimum = Math.min(minimum, subscriber.sequence.get());
+        }
+        return minimum;
+    }
+
+    private void consume(Subscriber subscriber) {
+        long next = subscriber.sequence.get() + 1;
+        while (running) {
+            int counter = 0;
+            while (!isPublished(next)) {
+                if (!running) return;
+                waitStrategy.idle(counter ++);
+            }
+            long available = highestPublished(next, claimed.get());
+            for (long sequence = next; sequence <= available; sequence ++) {
+                deliver(subscriber, get(sequence));
+            }
+            subscriber.sequence.set(available);
+            next = available + 1;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Subscriber subscriber, E event) {
+        try {
+            if (subscriber.slot != null) ((EventSlot<? super E>) subscriber.slot).accept(event);
+            else {
+                SubscriberIndex index = subscriber.index;
+                for (int i = 0; i < index.size(); i ++) {
+                    if (index.getEventType(i).isInstance(event)) index.invoke(i, subscriber.subscriber, event);
+                }
+            }
+        }
+        catch (Throwable e) {
+            if (onException.isEmpty()) e.printStackTrace();
+            else onException.emit1(e);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final Object subscriber;
+        private final SubscriberIndex index;
+        private final EventSlot<?> slot;
+        private final Sequence sequence = Sequence.of(-1);
+        private volatile Thread thread;
+
+        public Subscriber(Object subscriber, SubscriberIndex index, EventSlot<?> slot) {
+            this.subscriber = subscriber;
+            this.index = index;
+            this.slot = slot;
+        }
+
+    }
+
+    public Signal<Slot<Throwable>> onException() {
+        return onException;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "name='" + name + '\'' +
+                ", bufferSize=" + entries.length +
+                ", running=" + running +
+                '}';
+    }
+
+}
@@ -0,0 +1,76 @@
+package unrefined.util.event;
+
+import java.util.Objects;
+
+/**
+ * A static index of the {@link Subscribe} methods declared by a subscriber class.
+ * <p>
+ * Implementations are normally generated at compile time by the
+ * {@code unrefined.processor.SubscriberIndexProcessor} annotation processor,
+ * named after the binary name of the subscriber class followed by {@link #SUFFIX},
+ * and placed in the same package. {@link EventBus} looks them up when a subscriber is registered;
+ * if no index is present, it falls back to reflective scanning.
+ * <p>
+ * The generated {@link #invoke(int, Object, Event)} calls the subscriber methods directly,
+ * which removes reflection from both registration and dispatch.
+ *
+ * @see EventBus#register(Object)
+ */
+public abstract class SubscriberIndex {
+
+    /**
+     * The suffix appended to the binary name of the subscriber class to name the generated index.
+     */
+    public static final String SUFFIX = "$$SubscriberIndex";
+
+    private final Class<?> subscriberClass;
+    private final Class<?>[] eventTypes;
+
+    protected SubscriberIndex(Class<?> subscriberClass, Class<?>... eventTypes) {
+        this.subscriberClass = Objects.requireNonNull(subscriberClass);
+        this.eventTypes = Objects.requireNonNull(eventTypes);
+    }
+
+    public Class<?> getSubscriberClass() {
+        return subscriberClass;
+    }
+
+    /**
+     * Returns the count of indexed subscriber methods.
+     *
+     * @return the count of indexed subscriber methods
+     */
+    public int size() {
+        return eventTypes.length;
+    }
+
+    /**
+     * Returns the event type accepted by the subscriber method at the given index.
+     *
+     * @param index the subscriber method index
+     * @return the accepted event type
+     */
+    public Class<?> getEventType(int index) {
+        return eventTypes[index];
+    }
+
+    /**
+     * Invokes the subscriber method at the given index.
+     *
+     * @param index the subscriber method index
+     * @param subscriber the subscriber instance
+     * @param event the event, must be an instance of {@link #getEventType(int)}
+     * @throws Throwable anything thrown by the subscriber method
+     */
+    public abstract void invoke(int index, Object subscriber, Event<?> event) throws Throwable;
+
+    @Override
+    public String toString() {
+        return getClass().getName()
+                + '{' +
+                "subscriberClass=" + subscriberClass.getName() +
+                ", size=" + eventTypes.length +
+                '}';
+    }
+
+}
@@ -3,7 +3,9 @@ package unrefined.util.signal;
 import unrefined.util.NotInstantiableError;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Opaque object which represents a connection of a {@link Signal} and a slot.
@@ -67,6 +69,16 @@ public final class Connection {
          */
         public static final int SINGLE_SHOT = 0x100;
 
+        /**
+         * This is a flag that can be combined with {@link Type#QUEUED} or {@link Type#AUTO}, using a bitwise OR.
+         * When {@code CONFLATED} is set and several emissions are pending for the connection,
+         * only the latest arguments are delivered to the slot (latest-value-wins);
+         * the count of merged emissions is available through {@link Connection#getConflatedCount()}.
+         * <p>
+         * Has no effect on direct and blocking actuations, and on {@link Signal#emitAsync(Object...)}.
+         */
+        public static final int CONFLATED = 0x200;
+
         public static int unmask(int type) {
             return type << 29 >>> 29;
         }
@@ -98,6 +110,26 @@ public final class Connection {
      */
     final boolean singleShot;
 
+    /**
+     * Whether the connection is {@link Type#CONFLATED}.
+     */
+    final boolean conflated;
+
+    /**
+     * The count of pending emissions, if {@link #conflated}.
+     */
+    private final AtomicInteger pending;
+
+    /**
+     * The latest pending arguments, if {@link #conflated}.
+     */
+    private final AtomicReference<Object[]> latest;
+
+    /**
+     * The count of emissions merged into the latest delivery.
+     */
+    private volatile int conflatedCount = 0;
+
     /**
      * The dispatcher to dispatch the connection.
      */
@@ -118,21 +150,168 @@ public final class Connection {
         this.type = type;
         this.singleShot = singleShot;
         this.broken = new AtomicBoolean(broken);
+        this.conflated = (original & Type.CONFLATED) != 0;
+        this.pending = conflated ? new AtomicInteger(0) : null;
+        this.latest = conflated ? new AtomicReference<>() : null;
+    }
+
+    /**
+     * Stores the arguments as the latest pending ones.
+     *
+     * @return whether the connection needs to be queued,
+     * i.e. no delivery of it is pending yet
+     */
+    boolean conflate(Object[] args) {
+        latest.set(args);
+        return pending.getAndIncrement() == 0;
+    }
+
+    /**
+     * Takes the latest pending arguments and resets the pending count.
+     *
+     * @return the latest arguments, or {@code null} if they have been taken already
+     */
+    Object[] takeConflated() {
+        int count = pending.getAndSet(0);
+        Object[] args = latest.getAndSet(null);
+        if (args != null) conflatedCount = count;
+        return args;
     }
 
     void broke() {
         this.broken.set(true);
     }
 
+    Object actuate(Object... args) throws Throwable {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked(slot, args);
+            actuated();
+            return result;
+        }
+        finally {
+            end(start);
+        }
+    }
+
     /**
-     * The result.
+     * The slot metrics, created when first recorded.
      */
-    final AtomicReference<Object> result = new AtomicReference<>();
-    void actuate(Object... args) throws Throwable {
-        result.set(signal.actuateUnchecked(slot, args));
+    private volatile DispatchMetrics.SlotMetrics metrics = null;
+    private static final AtomicReferenceFieldUpdater<Connection, DispatchMetrics.SlotMetrics> METRICS =
+            AtomicReferenceFieldUpdater.newUpdater(Connection.class, DispatchMetrics.SlotMetrics.class, "metrics");
+
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    private static long begin() {
+        return DispatchMetrics.enabled ? System.nanoTime() : UNTIMED;
+    }
+
+    private void end(long start) {
+        if (start == UNTIMED) return;
+        long nanos = System.nanoTime() - start;
+        DispatchMetrics.SlotMetrics metrics = this.metrics;
+        if (metrics == null) {
+            // Concurrent first actuations must record into the same instance
+            metrics = new DispatchMetrics.SlotMetrics();
+            if (!METRICS.compareAndSet(this, null, metrics)) metrics = this.metrics;
+        }
+        metrics.executed(nanos);
+    }
+
+    /**
+     * Returns the slot metrics of this connection.
+     *
+     * @return the slot metrics, or {@code null} if nothing recorded
+     * @see DispatchMetrics
+     */
+    public DispatchMetrics.SlotMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void actuated() {
         if (singleShot) {
             broke();
-            signal.connections.remove(this);
+            signal.remove(this);
+        }
+    }
+
+    /*
+     * The direct actuation paths, which bypass the dispatcher.
+     */
+
+    Object actuateDirect(Object... args) {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked(slot, args);
+            end(start);
+            actuated();
+            return result;
+        }
+        catch (Throwable e) {
+            end(start);
+            dispatcher.handleException(e);
+            return null;
+        }
+    }
+
+    Object actuateDirect0() {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked0(slot);
+            end(start);
+            actuated();
+            return result;
+        }
+        catch (Throwable e) {
+            end(start);
+            dispatcher.handleException(e);
+            return null;
+        }
+    }
+
+    Object actuateDirect1(Object arg) {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked1(slot, arg);
+            end(start);
+            actuated();
+            return result;
+        }
+        catch (Throwable e) {
+            end(start);
+            dispatcher.handleException(e);
+            return null;
+        }
+    }
+
+    Object actuateDirect2(Object arg1, Object arg2) {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked2(slot, arg1, arg2);
+            end(start);
+            actuated();
+            return result;
+        }
+        catch (Throwable e) {
+            end(start);
+            dispatcher.handleException(e);
+            return null;
+        }
+    }
+
+    Object actuateDirect3(Object arg1, Object arg2, Object arg3) {
+        long start = begin();
+        try {
+            Object result = signal.actuateUnchecked3(slot, arg1, arg2, arg3);
+            end(start);
+            actuated();
+            return result;
+        }
+        catch (Throwable e) {
+            end(start);
+            dispatcher.handleException(e);
+            return null;
         }
     }
 
@@ -156,6 +335,26 @@ public final class Connection {
         return original;
     }
 
+    /**
+     * Returns the count of emissions merged into the delivery in progress (or the latest one)
+     * of a {@link Type#CONFLATED} connection. Slots may query it to account for skipped emissions.
+     *
+     * @return the count of merged emissions, always 0 if the connection is not conflated
+     */
+    public int getConflatedCount() {
+        return conflatedCount;
+    }
+
+    /**
+     * Returns the count of emissions currently waiting to be delivered
+     * by a {@link Type#CONFLATED} connection.
+     *
+     * @return the count of pending emissions, always 0 if the connection is not conflated
+     */
+    public int getPendingCount() {
+        return conflated ? pending.get() : 0;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
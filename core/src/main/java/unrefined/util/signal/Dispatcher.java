@@ -3,10 +3,11 @@ package unrefined.util.signal;
 import unrefined.context.Environment;
 import unrefined.util.function.Slot;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 import static unrefined.util.signal.Connection.Type.DIRECT;
 
@@ -33,22 +34,177 @@ public abstract class Dispatcher {
 	}
 
 	/**
-	 * Is used to block the signalling thread
-	 * if connection type is {@link Connection.Type#BLOCKING_QUEUED}
-	 * until an associated signal has been emitted.
+	 * A queued actuation, which is also the node of {@link #tail}.
+	 * Runs at most once.
 	 */
-	private final Semaphore blocking = new Semaphore(0);
+	static class Actuation implements Runnable {
+		Connection connection;
+		Object[] args;
+		/**
+		 * Whether counted by {@link DispatchMetrics.DispatcherMetrics}.
+		 */
+		DispatchMetrics.DispatcherMetrics metrics;
+		volatile Actuation next;
+		Actuation(Connection connection, Object[] args) {
+			this.connection = connection;
+			this.args = args;
+		}
+		@Override
+		public void run() {
+			Connection connection = this.connection;
+			Object[] args = this.args;
+			// The node may be retained as the queue head, clear it to not retain the references
+			this.connection = null;
+			this.args = null;
+			if (connection == null) return;
+			if (metrics != null) {
+				metrics.dequeued();
+				metrics = null;
+			}
+			args = takeArgs(connection, args);
+			if (args == null) return;
+			try {
+				complete(connection.actuate(args));
+			}
+			catch (Throwable e) {
+				if (!completeExceptionally(e)) connection.dispatcher.handleException(e);
+			}
+		}
+		Object[] takeArgs(Connection connection, Object[] args) {
+			return args;
+		}
+		void complete(Object result) {
+		}
+		/**
+		 * @return whether the exception is handled by the emitter
+		 */
+		boolean completeExceptionally(Throwable e) {
+			return false;
+		}
+	}
+
+	/**
+	 * The per-call completion of a {@link Connection.Type#BLOCKING_QUEUED} actuation.
+	 * Blocks the signalling thread until the slot returns.
+	 */
+	static final class BlockingActuation extends Actuation {
+		private final Thread waiter = Thread.currentThread();
+		private volatile boolean done = false;
+		private Object result;
+		BlockingActuation(Connection connection, Object[] args) {
+			super(connection, args);
+		}
+		@Override
+		void complete(Object result) {
+			this.result = result;
+			done = true;
+			LockSupport.unpark(waiter);
+		}
+		@Override
+		boolean completeExceptionally(Throwable e) {
+			complete(null);
+			return false;
+		}
+		Object await() throws InterruptedException {
+			while (!done) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) throw new InterruptedException();
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A {@link Connection.Type#CONFLATED} actuation, which takes the latest arguments from its connection when dispatched.
+	 */
+	static final class ConflatedActuation extends Actuation {
+		ConflatedActuation(Connection connection) {
+			super(connection, null);
+		}
+		@Override
+		Object[] takeArgs(Connection connection, Object[] args) {
+			return connection.takeConflated();
+		}
+	}
 
 	/**
-	 * Is used to prevent the deadlock of {@link #blocking}
+	 * The completion of an actuation queued by {@link Signal#emitAsync(Object...)}.
 	 */
-	private final AtomicBoolean blockingReleased = new AtomicBoolean(true);
+	static final class FutureActuation extends Actuation {
+		final CompletableFuture<Object> future = new CompletableFuture<>();
+		FutureActuation(Connection connection, Object[] args) {
+			super(connection, args);
+		}
+		@Override
+		void complete(Object result) {
+			future.complete(result);
+		}
+		@Override
+		boolean completeExceptionally(Throwable e) {
+			future.completeExceptionally(e);
+			return true;
+		}
+	}
+
+	/*
+	 * The queue of slots to actuate, a multi-producer single-consumer linked queue.
+	 * Any thread may append to the tail without locking,
+	 * only the single draining thread (see #draining) moves the head.
+	 */
+	private volatile Actuation head = new Actuation(null, null);
+	private final AtomicReference<Actuation> tail = new AtomicReference<>(head);
+
+	private void offer(Actuation actuation) {
+		tail.getAndSet(actuation).next = actuation;
+	}
+
+	private Actuation poll() {
+		Actuation next = head.next;
+		if (next != null) head = next;
+		return next;
+	}
+
+	private boolean hasQueued() {
+		return head.next != null || head != tail.get();
+	}
+
+	/**
+	 * Whether a drain task has been passed to {@link #invokeLater(Runnable)} and not finished yet.
+	 * Ensures at most one drain task is outstanding, so emissions wake the dispatcher up once per batch.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
 
 	/**
-	 * The queue of slots to actuate. Needs to be thread safe without locking.
+	 * Guarantees the single consumer of the queue.
 	 */
-	private final Queue<Connection> connectionQueue = new ConcurrentLinkedQueue<>();
-	private final Queue<Object[]> argsQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean draining = new AtomicBoolean(false);
+
+	private final Runnable drain = this::dispatch;
+
+	public static final int DEFAULT_BATCH_SIZE = 64;
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Returns the maximum count of slots actuated by one {@link #dispatch()} call.
+	 *
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum count of slots actuated by one {@link #dispatch()} call,
+	 * after which the dispatcher yields to other tasks of its thread.
+	 *
+	 * @param batchSize the batch size
+	 * @throws IllegalArgumentException if {@code batchSize} is not positive
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) throw new IllegalArgumentException("batchSize < 1");
+		this.batchSize = batchSize;
+	}
 
 	/**
 	 * Is emitted by {@link #dispatch()} if a {@link Throwable} has been
@@ -78,31 +234,123 @@ public abstract class Dispatcher {
 		if (connectionType == Connection.Type.QUEUED && !connection.signal.isDiscardReturnValue()) connectionType = Connection.Type.BLOCKING_QUEUED;
 		if (connectionType == DIRECT) {
 			try {
-				connection.actuate(args);
+				return connection.actuate(args);
 			}
 			catch (Throwable e) {
 				handleException(e);
 			}
 		}
-		else {
-			connectionQueue.add(connection);
-			argsQueue.add(args);
-			if (connectionType == Connection.Type.BLOCKING_QUEUED) blockingReleased.set(false);
-			connection.dispatcher.invokeLater(connection.dispatcher::dispatch);
-			if (connectionType == Connection.Type.BLOCKING_QUEUED) {
-				if (!blockingReleased.get()) {
-					try {
-						blocking.acquire();
-					} catch (InterruptedException e) {
-						handleException(e);
-					}
-				}
+		else if (connectionType == Connection.Type.BLOCKING_QUEUED) {
+			BlockingActuation actuation = new BlockingActuation(connection, args);
+			queue(connection, actuation);
+			try {
+				return actuation.await();
+			}
+			catch (InterruptedException e) {
+				handleException(e);
+			}
+		}
+		else if (connection.conflated) {
+			if (connection.conflate(args)) queue(connection, new ConflatedActuation(connection));
+		}
+		else queue(connection, new Actuation(connection, args));
+		return null;
+	}
+
+	/**
+	 * Actuates the given {@link Connection} without blocking the signalling thread,
+	 * regardless of whether the connection is {@link Connection.Type#BLOCKING_QUEUED}.
+	 * A {@link Throwable} thrown by the slot completes the returned future exceptionally
+	 * instead of being emitted by {@link #onException()}.
+	 *
+	 * @param connection The {@link Connection} to actuate.
+	 * @return the future of the slot result
+	 */
+	final CompletableFuture<Object> actuateAsync(Connection connection, Object... args) {
+		if (isDirect(connection)) {
+			CompletableFuture<Object> future = new CompletableFuture<>();
+			try {
+				future.complete(connection.actuate(args));
+			}
+			catch (Throwable e) {
+				future.completeExceptionally(e);
 			}
+			return future;
+		}
+		else {
+			FutureActuation actuation = new FutureActuation(connection, args);
+			queue(connection, actuation);
+			return actuation.future;
 		}
-		return connection.result.get();
 	}
 
-	private void handleException(Throwable e) {
+	private void queue(Connection connection, Actuation actuation) {
+		if (DispatchMetrics.enabled) {
+			DispatchMetrics.DispatcherMetrics metrics = this.metrics;
+			if (metrics == null) metrics = installMetrics();
+			metrics.enqueued();
+			actuation.metrics = metrics;
+		}
+		enqueue(connection, actuation);
+	}
+
+	/**
+	 * The dispatcher metrics, created when first recorded.
+	 */
+	private volatile DispatchMetrics.DispatcherMetrics metrics = null;
+	private static final AtomicReferenceFieldUpdater<Dispatcher, DispatchMetrics.DispatcherMetrics> METRICS =
+			AtomicReferenceFieldUpdater.newUpdater(Dispatcher.class, DispatchMetrics.DispatcherMetrics.class, "metrics");
+
+	/**
+	 * Installs and registers the metrics of this dispatcher, or returns the ones installed concurrently.
+	 */
+	private DispatchMetrics.DispatcherMetrics installMetrics() {
+		DispatchMetrics.DispatcherMetrics metrics = new DispatchMetrics.DispatcherMetrics();
+		if (METRICS.compareAndSet(this, null, metrics)) DispatchMetrics.register(this, metrics);
+		else metrics = this.metrics;
+		return metrics;
+	}
+
+	/**
+	 * Returns the metrics of this dispatcher.
+	 *
+	 * @return the dispatcher metrics, or {@code null} if nothing recorded
+	 * @see DispatchMetrics
+	 */
+	public DispatchMetrics.DispatcherMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Queues an actuation of the given {@link Connection}.
+	 * <p>
+	 * The default implementation appends it to the event queue, which is drained in batches
+	 * by {@link #dispatch()} within the single thread of {@link #invokeLater(Runnable)}.
+	 * Subclasses may override it to run actuations concurrently,
+	 * in which case {@link #dispatch()} is never needed.
+	 *
+	 * @param connection The {@link Connection} to actuate.
+	 * @param actuation The actuation, must be run exactly once.
+	 */
+	protected void enqueue(Connection connection, Runnable actuation) {
+		offer((Actuation) actuation);
+		schedule();
+	}
+
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) invokeLater(drain);
+	}
+
+	/**
+	 * Returns whether the given {@link Connection} would be actuated immediately
+	 * in the signalling thread, i.e. without going through the queue.
+	 */
+	final boolean isDirect(Connection connection) {
+		int connectionType = connection.type;
+		return connectionType == DIRECT || (connectionType == Connection.Type.AUTO && isDispatchThread());
+	}
+
+	void handleException(Throwable e) {
 		if (onException.isEmpty()) {
 			e.printStackTrace();
 			System.exit(1);
@@ -111,32 +359,35 @@ public abstract class Dispatcher {
 	}
 
 	/**
-	 * Polls the next {@link Connection} from the event queue and actuates
-	 * it. Does nothing if the event queue is empty. This function will never
+	 * Polls at most {@link #getBatchSize()} {@link Connection}s from the event queue and actuates
+	 * them. Does nothing if the event queue is empty. This function will never
 	 * throw a {@link RuntimeException}, but emit {@link #onException()}.
+	 * If any connection remains queued, another drain task is passed to {@link #invokeLater(Runnable)}.
 	 */
 	protected final void dispatch() {
-		Connection connection = null;
+		if (!draining.compareAndSet(false, true)) return;
 		try {
-			connection = connectionQueue.poll();
-			Object[] args = argsQueue.poll();
-			if (connection != null && args != null) {
-				connection.actuate(args);
+			int batchSize = this.batchSize;
+			int count = 0;
+			while (count < batchSize) {
+				Actuation actuation = poll();
+				if (actuation == null) break;
+				actuation.run();
+				count ++;
+			}
+			if (DispatchMetrics.enabled && count > 0) {
+				DispatchMetrics.DispatcherMetrics metrics = this.metrics;
+				if (metrics == null) metrics = installMetrics();
+				metrics.drained(count);
 			}
-		}
-		catch (Throwable e) {
-			handleException(e);
 		}
 		finally {
-			if (connection != null) {
-				int connectionType = connection.type;
-				if (connectionType == Connection.Type.AUTO) connectionType = Connection.Type.QUEUED;
-				if (connectionType == Connection.Type.QUEUED && !connection.signal.isDiscardReturnValue()) connectionType = Connection.Type.BLOCKING_QUEUED;
-				if (connectionType == Connection.Type.BLOCKING_QUEUED) {
-					blocking.release();
-					blockingReleased.set(true);
-				}
-			}
+			draining.set(false);
+		}
+		if (hasQueued()) invokeLater(drain);
+		else {
+			scheduled.set(false);
+			if (hasQueued()) schedule();
 		}
 	}
 
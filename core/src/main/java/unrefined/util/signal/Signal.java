@@ -1,18 +1,25 @@
 package unrefined.util.signal;
 
 import unrefined.util.concurrent.ConcurrentHashSet;
+import unrefined.util.EmptyArray;
 import unrefined.util.function.Assert;
+import unrefined.util.function.BiFunctor;
+import unrefined.util.function.BiSlot;
+import unrefined.util.function.Functor;
+import unrefined.util.function.Slot;
 import unrefined.util.function.VarFunctor;
 import unrefined.util.function.VarSlot;
 import unrefined.util.reflect.Reflection;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static java.lang.reflect.Modifier.isStatic;
 import static unrefined.util.signal.Connection.Type.*;
@@ -84,6 +91,18 @@ public abstract class Signal<T> {
 			protected Object actuate(T slot, Object... args) throws Throwable {
 				return slot.actuate(args);
 			}
+			@SuppressWarnings("unchecked")
+			@Override
+			protected Object actuate1(T slot, Object arg) throws Throwable {
+				if (slot instanceof Functor) return ((Functor<Object, ?>) slot).apply(arg);
+				else return slot.actuate(arg);
+			}
+			@SuppressWarnings("unchecked")
+			@Override
+			protected Object actuate2(T slot, Object arg1, Object arg2) throws Throwable {
+				if (slot instanceof BiFunctor) return ((BiFunctor<Object, Object, ?>) slot).apply(arg1, arg2);
+				else return slot.actuate(arg1, arg2);
+			}
 		};
 	}
 
@@ -94,6 +113,20 @@ public abstract class Signal<T> {
 				slot.actuate(args);
 				return null;
 			}
+			@SuppressWarnings("unchecked")
+			@Override
+			protected Object actuate1(T slot, Object arg) throws Throwable {
+				if (slot instanceof Slot) ((Slot<Object>) slot).accept(arg);
+				else slot.actuate(arg);
+				return null;
+			}
+			@SuppressWarnings("unchecked")
+			@Override
+			protected Object actuate2(T slot, Object arg1, Object arg2) throws Throwable {
+				if (slot instanceof BiSlot) ((BiSlot<Object, Object>) slot).accept(arg1, arg2);
+				else slot.actuate(arg1, arg2);
+				return null;
+			}
 		};
 	}
 
@@ -104,6 +137,26 @@ public abstract class Signal<T> {
 				slot.run();
 				return null;
 			}
+			@Override
+			protected Object actuate0(T slot) throws Throwable {
+				slot.run();
+				return null;
+			}
+			@Override
+			protected Object actuate1(T slot, Object arg) throws Throwable {
+				slot.run();
+				return null;
+			}
+			@Override
+			protected Object actuate2(T slot, Object arg1, Object arg2) throws Throwable {
+				slot.run();
+				return null;
+			}
+			@Override
+			protected Object actuate3(T slot, Object arg1, Object arg2, Object arg3) throws Throwable {
+				slot.run();
+				return null;
+			}
 		};
 	}
 
@@ -113,6 +166,22 @@ public abstract class Signal<T> {
 			protected Object actuate(T slot, Object... args) throws Throwable {
 				return slot.call();
 			}
+			@Override
+			protected Object actuate0(T slot) throws Throwable {
+				return slot.call();
+			}
+			@Override
+			protected Object actuate1(T slot, Object arg) throws Throwable {
+				return slot.call();
+			}
+			@Override
+			protected Object actuate2(T slot, Object arg1, Object arg2) throws Throwable {
+				return slot.call();
+			}
+			@Override
+			protected Object actuate3(T slot, Object arg1, Object arg2, Object arg3) throws Throwable {
+				return slot.call();
+			}
 		};
 	}
 
@@ -127,17 +196,97 @@ public abstract class Signal<T> {
 	private final AtomicBoolean enabled = new AtomicBoolean(true);
 
 	/**
-	 * The queue of dispatched connections.
+	 * An immutable snapshot of the connections.
+	 * Replaced as a whole on every connect/disconnect (copy-on-write),
+	 * so emitting iterates a plain array without locking or allocation.
+	 */
+	static final class Connections {
+
+		static final Connections EMPTY = new Connections(new Connection[0]);
+
+		final Connection[] array;
+
+		/**
+		 * Whether every connection is {@link Connection.Type#DIRECT},
+		 * i.e. emitting never needs the {@link Dispatcher}.
+		 */
+		final boolean direct;
+
+		Connections(Connection[] array) {
+			this.array = array;
+			boolean direct = true;
+			for (Connection connection : array) {
+				if (connection.type != DIRECT) {
+					direct = false;
+					break;
+				}
+			}
+			this.direct = direct;
+		}
+
+		int indexOf(Connection connection) {
+			for (int i = 0; i < array.length; i ++) {
+				if (array[i] == connection) return i;
+			}
+			return -1;
+		}
+
+		Connections add(Connection connection) {
+			Connection[] array = new Connection[this.array.length + 1];
+			System.arraycopy(this.array, 0, array, 0, this.array.length);
+			array[this.array.length] = connection;
+			return new Connections(array);
+		}
+
+		Connections remove(int index) {
+			if (array.length == 1) return EMPTY;
+			Connection[] array = new Connection[this.array.length - 1];
+			System.arraycopy(this.array, 0, array, 0, index);
+			System.arraycopy(this.array, index + 1, array, index, array.length - index);
+			return new Connections(array);
+		}
+
+	}
+
+	/**
+	 * The copy-on-write snapshot of dispatched connections.
 	 * @see Dispatcher
 	 */
-	final Queue<Connection> connections = new ConcurrentLinkedQueue<>();
+	private final AtomicReference<Connections> connections = new AtomicReference<>(Connections.EMPTY);
+
+	void add(Connection connection) {
+		Connections prev, next;
+		do {
+			prev = connections.get();
+			next = prev.add(connection);
+		} while (!connections.compareAndSet(prev, next));
+	}
+
+	boolean remove(Connection connection) {
+		Connections prev, next;
+		do {
+			prev = connections.get();
+			int index = prev.indexOf(connection);
+			if (index == -1) return false;
+			next = prev.remove(index);
+		} while (!connections.compareAndSet(prev, next));
+		return true;
+	}
+
+	boolean contains(Connection connection) {
+		return connections.get().indexOf(connection) != -1;
+	}
+
+	Connection[] connectionArray() {
+		return connections.get().array;
+	}
 
 	public boolean isEmpty() {
-		return connections.isEmpty();
+		return connections.get().array.length == 0;
 	}
 
 	public int connected() {
-		return connections.size();
+		return connections.get().array.length;
 	}
 
 	/**
@@ -169,7 +318,7 @@ public abstract class Signal<T> {
 	 * 'connect' methods is used concurrently.
 	 */
 	public void clear() {
-		connections.clear();
+		connections.set(Connections.EMPTY);
 		uniques.clear();
 	}
 
@@ -241,7 +390,9 @@ public abstract class Signal<T> {
 			case DIRECT:
 			case QUEUED:
 			case BLOCKING_QUEUED:
-				connections.add((connection = new Connection(this, slot, original, type, dispatcher, singleShot, broken)));
+				connection = new Connection(this, slot, original, type, dispatcher, singleShot, broken);
+				// A connection born broken is never actuated, don't keep it around
+				if (!broken) add(connection);
 				break;
 			default:
 				throw new IllegalArgumentException("Illegal connection type: " + type);
@@ -251,19 +402,19 @@ public abstract class Signal<T> {
 
 	public boolean disconnect(Connection connection) {
 		if (connection == null) return false;
-		if (!connections.contains(connection)) return false;
+		if (!contains(connection)) return false;
 		connection.broke();
-		connections.remove(connection);
+		remove(connection);
 		return true;
 	}
 
 	public boolean disconnect(Connection connection, Dispatcher dispatcher) {
 		if (connection == null) return false;
-		if (!connections.contains(connection)) return false;
+		if (!contains(connection)) return false;
 		if (dispatcher == null) dispatcher = Dispatcher.defaultInstance();
 		if (connection.dispatcher == dispatcher) {
 			connection.broke();
-			connections.remove(connection);
+			remove(connection);
 			return true;
 		}
 		return false;
@@ -271,10 +422,10 @@ public abstract class Signal<T> {
 
 	public boolean disconnect(T slot) {
 		if (slot == null) return disconnect();
-		for (Connection connection : connections) {
+		for (Connection connection : connections.get().array) {
 			if (connection.slot == slot) {
 				connection.broke();
-				connections.remove(connection);
+				remove(connection);
 				return true;
 			}
 		}
@@ -283,10 +434,10 @@ public abstract class Signal<T> {
 
 	public boolean disconnect(Dispatcher dispatcher) {
 		if (dispatcher == null) dispatcher = Dispatcher.defaultInstance();
-		for (Connection connection : connections) {
+		for (Connection connection : connections.get().array) {
 			if (connection.dispatcher == dispatcher) {
 				connection.broke();
-				connections.remove(connection);
+				remove(connection);
 				return true;
 			}
 		}
@@ -295,10 +446,10 @@ public abstract class Signal<T> {
 
 	public boolean disconnect(T slot, Dispatcher dispatcher) {
 		if (slot == null) return disconnect(dispatcher);
-		for (Connection connection : connections) {
+		for (Connection connection : connections.get().array) {
 			if (connection.dispatcher == dispatcher && connection.slot == slot) {
 				connection.broke();
-				connections.remove(connection);
+				remove(connection);
 				return true;
 			}
 		}
@@ -306,14 +457,43 @@ public abstract class Signal<T> {
 	}
 
 	public boolean disconnect() {
-		for (Connection connection : connections) {
+		for (Connection connection : connections.get().array) {
 			connection.broke();
-			connections.remove(connection);
+			remove(connection);
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * The signal metrics, created when first recorded.
+	 */
+	private volatile DispatchMetrics.SignalMetrics metrics = null;
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<Signal, DispatchMetrics.SignalMetrics> METRICS =
+			AtomicReferenceFieldUpdater.newUpdater(Signal.class, DispatchMetrics.SignalMetrics.class, "metrics");
+
+	private void emitted() {
+		DispatchMetrics.SignalMetrics metrics = this.metrics;
+		if (metrics == null) {
+			// Only the installed instance is registered, so concurrent first emits share it
+			metrics = new DispatchMetrics.SignalMetrics();
+			if (METRICS.compareAndSet(this, null, metrics)) DispatchMetrics.register(this, metrics);
+			else metrics = this.metrics;
+		}
+		metrics.emitted();
+	}
+
+	/**
+	 * Returns the metrics of this signal.
+	 *
+	 * @return the signal metrics, or {@code null} if nothing recorded
+	 * @see DispatchMetrics
+	 */
+	public DispatchMetrics.SignalMetrics getMetrics() {
+		return metrics;
+	}
+
 	/**
 	 * Emits this signal with the given arguments.
 	 *
@@ -321,16 +501,174 @@ public abstract class Signal<T> {
 	 */
 	public Object emit(Object... args) {
 		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connections connections = this.connections.get();
+			Object result = null;
+			if (connections.direct) {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.actuateDirect(args);
+				}
+			}
+			else {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.dispatcher.actuate(connection, args);
+				}
+			}
+			return result;
+		}
+		else return null;
+	}
+
+	/**
+	 * Emits this signal without arguments.
+	 * Never allocates for {@link Connection.Type#DIRECT} connections.
+	 *
+	 * @see #emit(Object...)
+	 */
+	public Object emit0() {
+		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connections connections = this.connections.get();
 			Object result = null;
-			for (Connection connection : connections) {
-				if (connection.isBroken()) connections.remove(connection);
-				else result = connection.dispatcher.actuate(connection, args);
+			if (connections.direct) {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.actuateDirect0();
+				}
+			}
+			else {
+				for (Connection connection : connections.array) {
+					if (connection.isBroken()) continue;
+					if (connection.dispatcher.isDirect(connection)) result = connection.actuateDirect0();
+					else result = connection.dispatcher.actuate(connection, EmptyArray.OBJECT);
+				}
 			}
 			return result;
 		}
 		else return null;
 	}
 
+	/**
+	 * Emits this signal with one argument.
+	 * Never allocates for {@link Connection.Type#DIRECT} connections.
+	 *
+	 * @param arg The argument to pass to the connected slots.
+	 * @see #emit(Object...)
+	 */
+	public Object emit1(Object arg) {
+		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connections connections = this.connections.get();
+			Object result = null;
+			if (connections.direct) {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.actuateDirect1(arg);
+				}
+			}
+			else {
+				for (Connection connection : connections.array) {
+					if (connection.isBroken()) continue;
+					if (connection.dispatcher.isDirect(connection)) result = connection.actuateDirect1(arg);
+					else result = connection.dispatcher.actuate(connection, arg);
+				}
+			}
+			return result;
+		}
+		else return null;
+	}
+
+	/**
+	 * Emits this signal with two arguments.
+	 * Never allocates for {@link Connection.Type#DIRECT} connections.
+	 *
+	 * @param arg1 The first argument to pass to the connected slots.
+	 * @param arg2 The second argument to pass to the connected slots.
+	 * @see #emit(Object...)
+	 */
+	public Object emit2(Object arg1, Object arg2) {
+		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connections connections = this.connections.get();
+			Object result = null;
+			if (connections.direct) {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.actuateDirect2(arg1, arg2);
+				}
+			}
+			else {
+				for (Connection connection : connections.array) {
+					if (connection.isBroken()) continue;
+					if (connection.dispatcher.isDirect(connection)) result = connection.actuateDirect2(arg1, arg2);
+					else result = connection.dispatcher.actuate(connection, arg1, arg2);
+				}
+			}
+			return result;
+		}
+		else return null;
+	}
+
+	/**
+	 * Emits this signal with three arguments.
+	 * Never allocates for {@link Connection.Type#DIRECT} connections.
+	 *
+	 * @param arg1 The first argument to pass to the connected slots.
+	 * @param arg2 The second argument to pass to the connected slots.
+	 * @param arg3 The third argument to pass to the connected slots.
+	 * @see #emit(Object...)
+	 */
+	public Object emit3(Object arg1, Object arg2, Object arg3) {
+		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connections connections = this.connections.get();
+			Object result = null;
+			if (connections.direct) {
+				for (Connection connection : connections.array) {
+					if (!connection.isBroken()) result = connection.actuateDirect3(arg1, arg2, arg3);
+				}
+			}
+			else {
+				for (Connection connection : connections.array) {
+					if (connection.isBroken()) continue;
+					if (connection.dispatcher.isDirect(connection)) result = connection.actuateDirect3(arg1, arg2, arg3);
+					else result = connection.dispatcher.actuate(connection, arg1, arg2, arg3);
+				}
+			}
+			return result;
+		}
+		else return null;
+	}
+
+	/**
+	 * Emits this signal with the given arguments without blocking the signalling thread,
+	 * even for {@link Connection.Type#BLOCKING_QUEUED} connections.
+	 * <p>
+	 * The returned future completes with the result of the last connected slot
+	 * once every connected slot has returned, or exceptionally if any slot threw.
+	 * Slot exceptions are delivered through the future instead of {@link Dispatcher#onException()}.
+	 *
+	 * @param args The arguments to use pass to the connected slots.
+	 * @return the future of the result
+	 */
+	public CompletableFuture<Object> emitAsync(Object... args) {
+		if (enabled.get()) {
+			if (DispatchMetrics.enabled) emitted();
+			Connection[] array = connections.get().array;
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[array.length];
+			CompletableFuture<Object> last = null;
+			int count = 0;
+			for (Connection connection : array) {
+				if (!connection.isBroken()) futures[count ++] = last = connection.dispatcher.actuateAsync(connection, args);
+			}
+			if (count == 0) return CompletableFuture.completedFuture(null);
+			else if (count == 1) return last;
+			else {
+				CompletableFuture<Object> result = last;
+				return CompletableFuture.allOf(count == futures.length ? futures : Arrays.copyOf(futures, count))
+						.thenApply(unused -> result.join());
+			}
+		}
+		else return CompletableFuture.completedFuture(null);
+	}
+
 	public Object emitIf(Assert<Signal<T>> predicate, Object... args) {
 		if (predicate.test(this)) return emit(args);
 		else return null;
@@ -354,9 +692,75 @@ public abstract class Signal<T> {
 	 */
 	protected abstract Object actuate(T slot, Object... args) throws Throwable;
 
+	/**
+	 * A callback method used for slot actuation by {@link #emit0()}.
+	 * Overrides it to avoid allocating the arguments array.
+	 *
+	 * @param slot The slot to actuate.
+	 */
+	protected Object actuate0(T slot) throws Throwable {
+		return actuate(slot, EmptyArray.OBJECT);
+	}
+
+	/**
+	 * A callback method used for slot actuation by {@link #emit1(Object)}.
+	 * Overrides it to avoid allocating the arguments array.
+	 *
+	 * @param slot The slot to actuate.
+	 * @param arg The argument of the actuated slot.
+	 */
+	protected Object actuate1(T slot, Object arg) throws Throwable {
+		return actuate(slot, arg);
+	}
+
+	/**
+	 * A callback method used for slot actuation by {@link #emit2(Object, Object)}.
+	 * Overrides it to avoid allocating the arguments array.
+	 *
+	 * @param slot The slot to actuate.
+	 * @param arg1 The first argument of the actuated slot.
+	 * @param arg2 The second argument of the actuated slot.
+	 */
+	protected Object actuate2(T slot, Object arg1, Object arg2) throws Throwable {
+		return actuate(slot, arg1, arg2);
+	}
+
+	/**
+	 * A callback method used for slot actuation by {@link #emit3(Object, Object, Object)}.
+	 * Overrides it to avoid allocating the arguments array.
+	 *
+	 * @param slot The slot to actuate.
+	 * @param arg1 The first argument of the actuated slot.
+	 * @param arg2 The second argument of the actuated slot.
+	 * @param arg3 The third argument of the actuated slot.
+	 */
+	protected Object actuate3(T slot, Object arg1, Object arg2, Object arg3) throws Throwable {
+		return actuate(slot, arg1, arg2, arg3);
+	}
+
 	@SuppressWarnings("unchecked")
 	Object actuateUnchecked(Object slot, Object... args) throws Throwable {
 		return actuate((T) slot, args);
 	}
 
+	@SuppressWarnings("unchecked")
+	Object actuateUnchecked0(Object slot) throws Throwable {
+		return actuate0((T) slot);
+	}
+
+	@SuppressWarnings("unchecked")
+	Object actuateUnchecked1(Object slot, Object arg) throws Throwable {
+		return actuate1((T) slot, arg);
+	}
+
+	@SuppressWarnings("unchecked")
+	Object actuateUnchecked2(Object slot, Object arg1, Object arg2) throws Throwable {
+		return actuate2((T) slot, arg1, arg2);
+	}
+
+	@SuppressWarnings("unchecked")
+	Object actuateUnchecked3(Object slot, Object arg1, Object arg2, Object arg3) throws Throwable {
+		return actuate3((T) slot, arg1, arg2, arg3);
+	}
+
 }
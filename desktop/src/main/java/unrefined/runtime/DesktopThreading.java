@@ -4,6 +4,7 @@ import unrefined.desktop.ThreadingSupport;
 import unrefined.math.FastMath;
 import unrefined.util.Threading;
 import unrefined.util.concurrent.worker.Worker;
+import unrefined.util.concurrent.worker.WorkerPool;
 
 import java.util.Objects;
 
@@ -63,8 +64,13 @@ public class DesktopThreading extends Threading {
     }
 
     @Override
-    public Worker createWorker(String name, Class<?> clazz) {
-        return new DesktopWorker(name, clazz);
+    public Worker createWorker(String name, Class<?> clazz, boolean virtual) {
+        return new DesktopWorker(name, clazz, virtual);
+    }
+
+    @Override
+    public WorkerPool createWorkerPool(String name, Class<?> clazz, int size, int capacity, int overflow) {
+        return new DesktopWorkerPool(name, clazz, size, capacity, overflow);
     }
 
 }
@@ -1,6 +1,7 @@
 package unrefined.runtime;
 
 import unrefined.desktop.ReflectionSupport;
+import unrefined.desktop.ThreadingSupport;
 import unrefined.util.concurrent.worker.Worker;
 
 import java.lang.reflect.InvocationTargetException;
@@ -24,25 +25,37 @@ public class DesktopWorker extends Worker {
     private final ExecutorService executor;
     private final String name;
     private final Method main;
+    private final boolean virtual;
 
     public DesktopWorker(String name, Class<?> clazz) throws IllegalArgumentException {
+        this(name, clazz, false);
+    }
+
+    /**
+     * Creates a new worker.
+     *
+     * @param name the name of the worker thread, or {@code null} to generate one
+     * @param clazz the class declaring {@code public static void main(Worker)}
+     * @param virtual whether to run on a virtual thread instead of a platform thread
+     * @throws IllegalArgumentException if no valid main method declared
+     * @throws UnsupportedOperationException if virtual and virtual thread not supported
+     */
+    public DesktopWorker(String name, Class<?> clazz, boolean virtual) throws IllegalArgumentException, UnsupportedOperationException {
         super(clazz);
-        try {
-            main = clazz.getDeclaredMethod("main", Worker.class);
-        } catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException("public static void main(Worker) required");
-        }
-        if (main.getReturnType() != void.class) throw new IllegalArgumentException("Illegal return type; expected void");
-        int modifiers = main.getModifiers();
-        if (!Modifier.isStatic(modifiers)) throw new IllegalArgumentException("Illegal method modifier; expected static");
-        if (!Modifier.isPublic(modifiers)) throw new IllegalArgumentException("Illegal method modifier; expected public");
+        main = getMainMethod(clazz);
+        if (virtual && !ThreadingSupport.isVirtualThreadSupported()) throw new UnsupportedOperationException("Virtual thread not supported");
+        this.virtual = virtual;
         this.name = name == null ? "DesktopWorker-" + serialNumber() : name;
         executor = Executors.newSingleThreadExecutor(runnable -> {
             if (thread == null) {
-                thread = new Thread(runnable);
-                thread.setUncaughtExceptionHandler((t, e) -> DesktopWorker.this.onException().emit(e));
-                thread.setDaemon(true);
-                thread.setName(DesktopWorker.this.name);
+                Thread.UncaughtExceptionHandler exceptionHandler = (t, e) -> DesktopWorker.this.onException().emit(e);
+                if (virtual) thread = ThreadingSupport.createVirtualThread(runnable, DesktopWorker.this.name, exceptionHandler);
+                else {
+                    thread = new Thread(runnable);
+                    thread.setUncaughtExceptionHandler(exceptionHandler);
+                    thread.setDaemon(true);
+                    thread.setName(DesktopWorker.this.name);
+                }
             }
             return thread;
         });
@@ -55,6 +68,25 @@ public class DesktopWorker extends Worker {
         });
     }
 
+    static Method getMainMethod(Class<?> clazz) throws IllegalArgumentException {
+        Method main;
+        try {
+            main = clazz.getDeclaredMethod("main", Worker.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("public static void main(Worker) required");
+        }
+        if (main.getReturnType() != void.class) throw new IllegalArgumentException("Illegal return type; expected void");
+        int modifiers = main.getModifiers();
+        if (!Modifier.isStatic(modifiers)) throw new IllegalArgumentException("Illegal method modifier; expected static");
+        if (!Modifier.isPublic(modifiers)) throw new IllegalArgumentException("Illegal method modifier; expected public");
+        return main;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return virtual;
+    }
+
     public ExecutorService getExecutor() {
         return executor;
     }
@@ -90,6 +122,7 @@ public class DesktopWorker extends Worker {
         return getClass().getName() + '@' + Integer.toHexString(hashCode())
                 + '{' +
                 "name='" + name + '\'' +
+                ", virtual=" + virtual +
                 '}';
     }
 
@@ -0,0 +1,244 @@
+package unrefined.runtime;
+
+import unrefined.desktop.ReflectionSupport;
+import unrefined.util.concurrent.worker.Worker;
+import unrefined.util.concurrent.worker.WorkerPool;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class DesktopWorkerPool extends WorkerPool {
+
+    /**
+     * This ID is used to generate thread names.
+     */
+    private static final AtomicInteger nextSerialNumber = new AtomicInteger();
+    private static int serialNumber() {
+        return nextSerialNumber.getAndIncrement();
+    }
+
+    /**
+     * How long an idle worker waits on its own mailbox before trying to steal again.
+     */
+    private static final long STEAL_INTERVAL_MILLIS = 10;
+
+    private final String name;
+    private final Method main;
+    private final PooledWorker[] workers;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private volatile boolean terminated = false;
+
+    public DesktopWorkerPool(String name, Class<?> clazz, int size, int capacity, int overflow) throws IllegalArgumentException {
+        super(clazz, capacity, overflow);
+        if (size < 1) throw new IllegalArgumentException("size < 1");
+        main = DesktopWorker.getMainMethod(clazz);
+        this.name = name == null ? "DesktopWorkerPool-" + serialNumber() : name;
+        workers = new PooledWorker[size];
+        for (int i = 0; i < size; i ++) {
+            workers[i] = new PooledWorker(i);
+        }
+        for (PooledWorker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getSize() {
+        return workers.length;
+    }
+
+    @Override
+    public Worker getWorker(int index) {
+        return workers[index];
+    }
+
+    @Override
+    public boolean post(Object message) throws IllegalStateException {
+        return workers[Math.floorMod(nextIndex.getAndIncrement(), workers.length)].offer(new Message(message, true));
+    }
+
+    @Override
+    public boolean post(Object key, Object message) throws IllegalStateException {
+        int hash = Objects.hashCode(key);
+        hash ^= hash >>> 16;
+        return workers[Math.floorMod(hash, workers.length)].offer(new Message(message, false));
+    }
+
+    @Override
+    public void terminate() {
+        terminated = true;
+        for (PooledWorker worker : workers) {
+            worker.thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        if (!terminated) return false;
+        for (PooledWorker worker : workers) {
+            if (worker.thread.isAlive()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public Statistics getStatistics(int index) {
+        PooledWorker worker = workers[index];
+        return new Statistics(worker.mailbox.size(), worker.posted.get(), worker.processed.get(),
+                worker.stolen.get(), worker.rejected.get(), System.nanoTime() - worker.startNanos);
+    }
+
+    private static final class Message {
+        private final Object payload;
+        private final boolean stealable;
+        public Message(Object payload, boolean stealable) {
+            this.payload = payload;
+            this.stealable = stealable;
+        }
+    }
+
+    private final class PooledWorker extends Worker implements Runnable {
+
+        private final int index;
+        private final String name;
+        private final Thread thread;
+        private final LinkedBlockingDeque<Message> mailbox = new LinkedBlockingDeque<>(getCapacity());
+        private final AtomicLong posted = new AtomicLong();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong stolen = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+
+        public PooledWorker(int index) {
+            super(DesktopWorkerPool.this.getWorkerClass());
+            this.index = index;
+            this.name = DesktopWorkerPool.this.name + "-" + index;
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+        }
+
+        public boolean offer(Message message) throws IllegalStateException {
+            if (terminated) throw new IllegalStateException("Worker is terminated");
+            if (getOverflowPolicy() == Overflow.REJECT) {
+                if (!mailbox.offerLast(message)) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+            }
+            else {
+                try {
+                    while (!mailbox.offerLast(message, STEAL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (terminated) throw new IllegalStateException("Worker is terminated");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            posted.incrementAndGet();
+            return true;
+        }
+
+        private Message steal() {
+            for (int i = 1; i < workers.length; i ++) {
+                PooledWorker victim = workers[(index + i) % workers.length];
+                Message message = victim.mailbox.peekLast();
+                if (message != null && message.stealable && victim.mailbox.removeLastOccurrence(message)) {
+                    stolen.incrementAndGet();
+                    return message;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                ReflectionSupport.invokeVoidMethod(null, main, this);
+            } catch (InvocationTargetException e) {
+                handleException(e.getTargetException());
+            }
+            while (!terminated) {
+                Message message = mailbox.pollFirst();
+                if (message == null) message = steal();
+                if (message == null) {
+                    try {
+                        message = mailbox.pollFirst(STEAL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                    if (message == null) continue;
+                }
+                try {
+                    onMessage().emit(message.payload);
+                }
+                catch (Throwable e) {
+                    handleException(e);
+                }
+                processed.incrementAndGet();
+            }
+        }
+
+        private void handleException(Throwable e) {
+            onException().emit(e);
+            DesktopWorkerPool.this.onException().emit(e);
+        }
+
+        @Override
+        public void post(Object message) throws IllegalStateException {
+            if (!offer(new Message(message, false))) {
+                throw new IllegalStateException(Thread.currentThread().isInterrupted() ? "Interrupted while posting" : "Mailbox full");
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void terminate() {
+            DesktopWorkerPool.this.terminate();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return terminated && !thread.isAlive();
+        }
+
+        @Override
+        public boolean isWorkerThread(Thread thread) {
+            return thread != null && thread == this.thread;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getName() + '@' + Integer.toHexString(hashCode())
+                    + '{' +
+                    "name='" + name + '\'' +
+                    '}';
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + '@' + Integer.toHexString(hashCode())
+                + '{' +
+                "name='" + name + '\'' +
+                ", size=" + workers.length +
+                ", capacity=" + getCapacity() +
+                '}';
+    }
+
+}
@@ -0,0 +1,88 @@
+package org.example.desktop;
+
+import unrefined.app.Logger;
+import unrefined.runtime.BaseDispatcher;
+import unrefined.runtime.DesktopRuntime;
+import unrefined.util.event.Event;
+import unrefined.util.event.EventBus;
+import unrefined.util.event.RingBufferEventBus;
+import unrefined.util.event.Subscribe;
+import unrefined.util.signal.Connection;
+import unrefined.util.signal.Dispatcher;
+
+import java.util.concurrent.CountDownLatch;
+
+public class RingBufferEventBusBenchmark {
+
+    private static final String TAG = "Unrefined EventBus";
+    private static final int EVENTS = 4_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        DesktopRuntime.initialize(args);
+
+        Logger logger = Logger.defaultInstance();
+
+        // Signal-based bus, queued to a dispatcher thread, one allocation per event
+        EventBus bus = EventBus.defaultInstance();
+        Dispatcher dispatcher = new BaseDispatcher();
+        CountingSubscriber subscriber = new CountingSubscriber(EVENTS);
+        bus.register(subscriber, dispatcher, Connection.Type.QUEUED);
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < EVENTS; i ++) {
+            bus.post(new LongEvent(RingBufferEventBusBenchmark.class, i));
+        }
+        subscriber.latch.await();
+        logger.info(TAG, "EventBus: " + (System.currentTimeMillis() - time) + "ms, sum: " + subscriber.sum);
+        bus.unregister(subscriber);
+
+        // Ring buffer bus, preallocated and recycled events
+        for (RingBufferEventBus.WaitStrategy waitStrategy : new RingBufferEventBus.WaitStrategy[] {
+                RingBufferEventBus.YIELDING, RingBufferEventBus.PARKING }) {
+            RingBufferEventBus<LongEvent> ringBus = new RingBufferEventBus<>(1024,
+                    () -> new LongEvent(RingBufferEventBusBenchmark.class, 0), waitStrategy);
+            subscriber = new CountingSubscriber(EVENTS);
+            ringBus.register(subscriber);
+            ringBus.start();
+            time = System.currentTimeMillis();
+            for (int i = 0; i < EVENTS; i ++) {
+                long sequence = ringBus.next();
+                ringBus.get(sequence).setValue(i);
+                ringBus.publish(sequence);
+            }
+            subscriber.latch.await();
+            logger.info(TAG, "RingBufferEventBus (" + (waitStrategy == RingBufferEventBus.YIELDING ? "yielding" : "parking") + "): "
+                    + (System.currentTimeMillis() - time) + "ms, sum: " + subscriber.sum);
+            ringBus.shutdown();
+        }
+    }
+
+    public static class LongEvent extends Event<Class<?>> {
+        private long value;
+        public LongEvent(Class<?> source, long value) {
+            super(source);
+            this.value = value;
+        }
+        public long getValue() {
+            return value;
+        }
+        public void setValue(long value) {
+            this.value = value;
+        }
+    }
+
+    public static class CountingSubscriber {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final long count;
+        private long received;
+        private long sum;
+        public CountingSubscriber(long count) {
+            this.count = count;
+        }
+        @Subscribe
+        public void onLongEvent(LongEvent event) {
+            sum += event.getValue();
+            if (++ received == count) latch.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package org.example.desktop;
+
+import unrefined.app.Logger;
+import unrefined.runtime.DesktopRuntime;
+import unrefined.util.FastArray;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SortBenchmark {
+
+    private static final String TAG = "Unrefined Sort";
+    private static final int LENGTH = 4_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        DesktopRuntime.initialize(args);
+
+        Random random = new Random(42);
+        int[] ints = new int[LENGTH];
+        long[] longs = new long[LENGTH];
+        float[] floats = new float[LENGTH];
+        for (int i = 0; i < LENGTH; i ++) {
+            ints[i] = random.nextInt();
+            longs[i] = random.nextLong();
+            floats[i] = (float) random.nextGaussian();
+        }
+
+        for (int round = 0; round < ROUNDS; round ++) {
+            benchmark("int[] Arrays.sort", () -> Arrays.sort(ints.clone()));
+            benchmark("int[] Arrays.parallelSort", () -> Arrays.parallelSort(ints.clone()));
+            benchmark("int[] FastArray.radixSort", () -> FastArray.radixSort(ints.clone()));
+            benchmark("int[] FastArray.sortIndirect", () -> FastArray.sortIndirect(ints));
+            benchmark("long[] Arrays.sort", () -> Arrays.sort(longs.clone()));
+            benchmark("long[] Arrays.parallelSort", () -> Arrays.parallelSort(longs.clone()));
+            benchmark("long[] FastArray.radixSort", () -> FastArray.radixSort(longs.clone()));
+            benchmark("float[] Arrays.sort", () -> Arrays.sort(floats.clone()));
+            benchmark("float[] Arrays.parallelSort", () -> Arrays.parallelSort(floats.clone()));
+            benchmark("float[] FastArray.radixSort", () -> FastArray.radixSort(floats.clone()));
+        }
+    }
+
+    private static void benchmark(String name, Runnable sort) {
+        long time = System.currentTimeMillis();
+        sort.run();
+        Logger.defaultInstance().info(TAG, name + " (" + LENGTH + " elements, including copy): "
+                + (System.currentTimeMillis() - time) + "ms");
+    }
+
+}
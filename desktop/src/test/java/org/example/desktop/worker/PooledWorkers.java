@@ -0,0 +1,40 @@
+package org.example.desktop.worker;
+
+import unrefined.app.Logger;
+import unrefined.runtime.DesktopRuntime;
+import unrefined.util.Threading;
+import unrefined.util.concurrent.worker.Worker;
+import unrefined.util.concurrent.worker.WorkerPool;
+import unrefined.util.signal.Connection;
+
+public class PooledWorkers {
+
+    public static void main(Worker worker) {
+        Logger logger = Logger.defaultInstance();
+
+        worker.onMessage().connect(message ->
+                        logger.info(worker.getName(), message.toString()),
+                Connection.Type.DIRECT);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        DesktopRuntime.initialize(args);
+
+        Threading threading = Threading.getInstance();
+        WorkerPool pool = threading.createWorkerPool("Test", PooledWorkers.class, 4, 16, WorkerPool.Overflow.BLOCK);
+
+        for (int i = 0; i < 8; i ++) {
+            pool.post("Round-robin message " + i);
+        }
+        for (int i = 0; i < 8; i ++) {
+            pool.post("user" + (i % 2), "Keyed message " + i + " of user" + (i % 2));
+        }
+
+        Thread.sleep(100);
+        for (int i = 0; i < pool.getSize(); i ++) {
+            Logger.defaultInstance().info(pool.getName(), pool.getStatistics(i).toString());
+        }
+        pool.terminate();
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.example.desktop.worker;
+
+import unrefined.app.Logger;
+import unrefined.runtime.DesktopRuntime;
+import unrefined.util.Threading;
+import unrefined.util.concurrent.worker.Worker;
+import unrefined.util.signal.Connection;
+
+import java.util.concurrent.CountDownLatch;
+
+public class VirtualWorkerBenchmark {
+
+    private static final String TAG = "Unrefined Worker";
+    private static final int WORKERS = 10_000;
+    private static final int MESSAGES_PER_WORKER = 100;
+
+    private static volatile CountDownLatch latch;
+
+    public static void main(Worker worker) {
+        worker.onMessage().connect(message -> latch.countDown(), Connection.Type.DIRECT);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        DesktopRuntime.initialize(args);
+
+        Threading threading = Threading.getInstance();
+        benchmark(threading, false);
+        if (threading.isVirtualThreadSupported()) benchmark(threading, true);
+        else Logger.defaultInstance().info(TAG, "Virtual thread not supported, skipped");
+    }
+
+    private static void benchmark(Threading threading, boolean virtual) throws InterruptedException {
+        Logger logger = Logger.defaultInstance();
+        String mode = virtual ? "Virtual" : "Platform";
+
+        long memory = usedMemory();
+        long time = System.currentTimeMillis();
+        Worker[] workers = new Worker[WORKERS];
+        for (int i = 0; i < WORKERS; i ++) {
+            workers[i] = threading.createWorker(mode + "Worker-" + i, VirtualWorkerBenchmark.class, virtual);
+        }
+        logger.info(TAG, mode + " workers created: " + (System.currentTimeMillis() - time) + "ms, heap: "
+                + (usedMemory() - memory) / 1024 + "KiB, active threads: " + threading.activeThreadCount());
+
+        latch = new CountDownLatch(WORKERS * MESSAGES_PER_WORKER);
+        time = System.currentTimeMillis();
+        for (int i = 0; i < MESSAGES_PER_WORKER; i ++) {
+            for (Worker worker : workers) {
+                worker.post(i);
+            }
+        }
+        latch.await();
+        long elapsed = Math.max(1, System.currentTimeMillis() - time);
+        logger.info(TAG, mode + " workers processed " + WORKERS * MESSAGES_PER_WORKER + " messages: "
+                + elapsed + "ms, " + WORKERS * MESSAGES_PER_WORKER * 1000L / elapsed + " messages/s");
+
+        for (Worker worker : workers) {
+            worker.terminate();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,181 @@
+package unrefined.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code unrefined.util.event.SubscriberIndex} for every class
+ * which declares {@code unrefined.util.event.Subscribe} methods.
+ * <p>
+ * The index of {@code com.example.Foo} is named {@code com.example.Foo$$SubscriberIndex},
+ * so it can call package-private subscriber methods directly.
+ * Classes whose subscriber methods or event types are not accessible from the same package
+ * (e.g. private methods) are skipped, and {@code EventBus} falls back to reflection for them.
+ */
+public class SubscriberIndexProcessor extends AbstractProcessor {
+
+    private static final String SUBSCRIBE = "unrefined.util.event.Subscribe";
+    private static final String EVENT = "unrefined.util.event.Event";
+    private static final String SUBSCRIBER_INDEX = "unrefined.util.event.SubscriberIndex";
+    private static final String SUFFIX = "$$SubscriberIndex";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(SUBSCRIBE);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement subscribe = elements.getTypeElement(SUBSCRIBE);
+        TypeElement event = elements.getTypeElement(EVENT);
+        if (subscribe == null || event == null) return false;
+        TypeMirror eventType = types.erasure(event.asType());
+
+        Map<TypeElement, List<ExecutableElement>> subscribers = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(subscribe)) {
+            if (element.getKind() != ElementKind.METHOD) continue;
+            ExecutableElement method = (ExecutableElement) element;
+            if (method.getParameters().size() != 1) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@Subscribe method must have exactly one parameter", method);
+                continue;
+            }
+            if (!types.isAssignable(types.erasure(method.getParameters().get(0).asType()), eventType)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@Subscribe method parameter must be a subtype of " + EVENT, method);
+                continue;
+            }
+            TypeElement enclosing = (TypeElement) method.getEnclosingElement();
+            List<ExecutableElement> methods = subscribers.get(enclosing);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                subscribers.put(enclosing, methods);
+            }
+            methods.add(method);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : subscribers.entrySet()) {
+            TypeElement subscriber = entry.getKey();
+            List<ExecutableElement> methods = entry.getValue();
+            String reason = checkAccessible(subscriber, methods);
+            if (reason != null) {
+                messager.printMessage(Diagnostic.Kind.NOTE,
+                        "Subscriber index not generated, reflection will be used instead: " + reason, subscriber);
+                continue;
+            }
+            try {
+                writeIndex(subscriber, methods);
+            }
+            catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Failed to write subscriber index: " + e, subscriber);
+            }
+        }
+        return false;
+    }
+
+    private String checkAccessible(TypeElement subscriber, List<ExecutableElement> methods) {
+        if (!isAccessible(subscriber)) return "subscriber class is private, local or anonymous";
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) return "method " + method.getSimpleName() + " is private";
+            TypeMirror parameterType = types.erasure(method.getParameters().get(0).asType());
+            if (parameterType.getKind() != TypeKind.DECLARED
+                    || !isAccessible((TypeElement) ((DeclaredType) parameterType).asElement()))
+                return "event type of method " + method.getSimpleName() + " is not accessible";
+        }
+        return null;
+    }
+
+    private static boolean isAccessible(TypeElement element) {
+        for (Element e = element; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            TypeElement type = (TypeElement) e;
+            if (type.getNestingKind() == NestingKind.LOCAL || type.getNestingKind() == NestingKind.ANONYMOUS) return false;
+            if (type.getModifiers().contains(Modifier.PRIVATE)) return false;
+        }
+        return true;
+    }
+
+    private void writeIndex(TypeElement subscriber, List<ExecutableElement> methods) throws IOException {
+        PackageElement packageElement = elements.getPackageOf(subscriber);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(subscriber).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String subscriberName = rawName(types.erasure(subscriber.asType()));
+
+        JavaFileObject file = filer.createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, subscriber);
+        try (Writer writer = file.openWriter()) {
+            if (!packageName.isEmpty()) writer.write("package " + packageName + ";\n\n");
+            writer.write("/**\n * Generated by " + SubscriberIndexProcessor.class.getName() + ", do not edit.\n */\n");
+            writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            writer.write("public final class " + simpleName + " extends " + SUBSCRIBER_INDEX + " {\n\n");
+            writer.write("    public " + simpleName + "() {\n");
+            writer.write("        super(" + subscriberName + ".class");
+            for (ExecutableElement method : methods) {
+                writer.write(", " + eventTypeName(method) + ".class");
+            }
+            writer.write(");\n    }\n\n");
+            writer.write("    @Override\n");
+            writer.write("    public void invoke(int index, Object subscriber, " + EVENT + "<?> event) throws Throwable {\n");
+            writer.write("        switch (index) {\n");
+            for (int i = 0; i < methods.size(); i ++) {
+                ExecutableElement method = methods.get(i);
+                String target = method.getModifiers().contains(Modifier.STATIC) ? subscriberName : "((" + subscriberName + ") subscriber)";
+                writer.write("            case " + i + ": " + target + "." + method.getSimpleName()
+                        + "((" + eventTypeName(method) + ") event); break;\n");
+            }
+            writer.write("            default: throw new IndexOutOfBoundsException(\"Index: \" + index);\n");
+            writer.write("        }\n    }\n\n}\n");
+        }
+    }
+
+    private String eventTypeName(ExecutableElement method) {
+        return rawName(types.erasure(method.getParameters().get(0).asType()));
+    }
+
+    private static String rawName(TypeMirror type) {
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+
+}